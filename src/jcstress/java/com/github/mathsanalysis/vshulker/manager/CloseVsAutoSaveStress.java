@@ -0,0 +1,41 @@
+package com.github.mathsanalysis.vshulker.manager;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.III_Result;
+
+@JCStressTest
+@Outcome(id = "1, 1, 1", expect = Expect.ACCEPTABLE, desc = "Autosave finished before the close, final save ran")
+@Outcome(id = "1, 0, 1", expect = Expect.ACCEPTABLE, desc = "Close landed during the autosave, final save still ran")
+@Outcome(id = "0, 0, 1", expect = Expect.ACCEPTABLE, desc = "Close won, autosave was skipped")
+@Outcome(expect = Expect.FORBIDDEN, desc = "Final save lost or session not closed")
+@State
+public class CloseVsAutoSaveStress {
+
+    private final StressSession session = StressSession.create();
+    private volatile boolean finalSaved;
+
+    @Actor
+    public void autoSave(III_Result r) {
+        if (session.lifecycle().beginAutoSave()) {
+            r.r1 = 1;
+            r.r2 = session.lifecycle().endAutoSave() ? 1 : 0;
+        }
+    }
+
+    @Actor
+    public void close() {
+        if (session.lifecycle().beginClose() && session.lifecycle().beginFinalSave()) {
+            finalSaved = true;
+        }
+    }
+
+    @Arbiter
+    public void arbiter(III_Result r) {
+        r.r3 = finalSaved && session.lifecycle().state() == SessionLifecycle.State.CLOSED ? 1 : 0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.mathsanalysis.vshulker.manager;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.I_Result;
+
+@JCStressTest
+@Outcome(id = "0", expect = Expect.ACCEPTABLE, desc = "Reopen rejected while the old session was open or saving")
+@Outcome(id = "1", expect = Expect.ACCEPTABLE, desc = "Reopen after the deferred save was written")
+@Outcome(id = "2", expect = Expect.FORBIDDEN, desc = "Reopen read contents before the deferred save was written")
+@State
+public class DeferredSaveVsReopenStress {
+
+    private final SessionRegistry<String, StressSession> sessions = new SessionRegistry<>();
+    private final StressSession previous = StressSession.create();
+    private volatile boolean written;
+
+    public DeferredSaveVsReopenStress() {
+        sessions.open(StressSession.KEY, previous);
+    }
+
+    @Actor
+    public void deferredClose() {
+        StressSession session = sessions.removeDeferred(StressSession.KEY);
+        if (session == null) {
+            return;
+        }
+
+        if (StressSession.close(session)) {
+            written = true;
+        }
+        sessions.finishDeferred(StressSession.KEY, session);
+    }
+
+    @Actor
+    public void reopen(I_Result r) {
+        if (sessions.open(StressSession.KEY, StressSession.create()) == SessionRegistry.OpenResult.OPENED) {
+            r.r1 = written && previous.lifecycle().state() == SessionLifecycle.State.CLOSED ? 1 : 2;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.mathsanalysis.vshulker.manager;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+@JCStressTest
+@Outcome(id = {"1, 0", "0, 1"}, expect = Expect.ACCEPTABLE, desc = "Exactly one close saved the session")
+@Outcome(expect = Expect.FORBIDDEN, desc = "Session saved twice or not at all")
+@State
+public class DoubleCloseStress {
+
+    private final SessionRegistry<String, StressSession> sessions = new SessionRegistry<>();
+
+    public DoubleCloseStress() {
+        sessions.open(StressSession.KEY, StressSession.create());
+    }
+
+    @Actor
+    public void deferredClose(II_Result r) {
+        StressSession session = sessions.removeDeferred(StressSession.KEY);
+        if (StressSession.close(session)) {
+            r.r1 = 1;
+        }
+        if (session != null) {
+            sessions.finishDeferred(StressSession.KEY, session);
+        }
+    }
+
+    @Actor
+    public void immediateClose(II_Result r) {
+        if (StressSession.close(sessions.remove(StressSession.KEY))) {
+            r.r2 = 1;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.mathsanalysis.vshulker.manager;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.III_Result;
+
+@JCStressTest
+@Outcome(id = "1, 0, 1", expect = Expect.ACCEPTABLE, desc = "Stale discard ignored, new session survived")
+@Outcome(expect = Expect.FORBIDDEN, desc = "Stale discard removed or closed the new session")
+@State
+public class StaleViolationVsReopenStress {
+
+    private final SessionRegistry<String, StressSession> sessions = new SessionRegistry<>();
+    private final StressSession stale = StressSession.create();
+    private final StressSession current = StressSession.create();
+
+    public StaleViolationVsReopenStress() {
+        sessions.open(StressSession.KEY, stale);
+        StressSession.close(sessions.remove(StressSession.KEY));
+    }
+
+    @Actor
+    public void reopen(III_Result r) {
+        if (sessions.open(StressSession.KEY, current) == SessionRegistry.OpenResult.OPENED) {
+            r.r1 = 1;
+        }
+    }
+
+    @Actor
+    public void staleViolation(III_Result r) {
+        if (sessions.discard(StressSession.KEY, stale)) {
+            r.r2 = 1;
+        }
+    }
+
+    @Arbiter
+    public void arbiter(III_Result r) {
+        boolean alive = sessions.active().get(StressSession.KEY) == current
+                && current.lifecycle().state() == SessionLifecycle.State.OPEN;
+        r.r3 = alive ? 1 : 0;
+    }
+}
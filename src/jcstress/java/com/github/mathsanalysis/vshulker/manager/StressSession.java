@@ -0,0 +1,14 @@
+package com.github.mathsanalysis.vshulker.manager;
+
+record StressSession(SessionLifecycle lifecycle) implements SessionRegistry.Tracked {
+
+    static final String KEY = "player";
+
+    static StressSession create() {
+        return new StressSession(new SessionLifecycle());
+    }
+
+    static boolean close(StressSession session) {
+        return session != null && session.lifecycle().beginClose() && session.lifecycle().beginFinalSave();
+    }
+}
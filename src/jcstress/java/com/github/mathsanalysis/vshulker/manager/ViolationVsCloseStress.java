@@ -0,0 +1,43 @@
+package com.github.mathsanalysis.vshulker.manager;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.III_Result;
+
+@JCStressTest
+@Outcome(id = {"1, 0, 1", "0, 1, 1"}, expect = Expect.ACCEPTABLE, desc = "Exactly one of discard and close won")
+@Outcome(expect = Expect.FORBIDDEN, desc = "Both or neither won, or the session was left open")
+@State
+public class ViolationVsCloseStress {
+
+    private final SessionRegistry<String, StressSession> sessions = new SessionRegistry<>();
+    private final StressSession session = StressSession.create();
+
+    public ViolationVsCloseStress() {
+        sessions.open(StressSession.KEY, session);
+    }
+
+    @Actor
+    public void violation(III_Result r) {
+        if (sessions.discard(StressSession.KEY, session)) {
+            r.r1 = 1;
+        }
+    }
+
+    @Actor
+    public void close(III_Result r) {
+        if (StressSession.close(sessions.remove(StressSession.KEY))) {
+            r.r2 = 1;
+        }
+    }
+
+    @Arbiter
+    public void arbiter(III_Result r) {
+        boolean closed = session.lifecycle().state() == SessionLifecycle.State.CLOSED;
+        r.r3 = closed && sessions.active().isEmpty() ? 1 : 0;
+    }
+}
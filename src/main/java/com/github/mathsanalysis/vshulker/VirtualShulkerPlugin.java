@@ -2,11 +2,15 @@ package com.github.mathsanalysis.vshulker;
 
 import com.github.mathsanalysis.vshulker.command.ShulkerCommand;
 import com.github.mathsanalysis.vshulker.config.Config;
+import com.github.mathsanalysis.vshulker.listener.AdminListener;
 import com.github.mathsanalysis.vshulker.listener.ShulkerBlockListener;
 import com.github.mathsanalysis.vshulker.listener.ShulkerListener;
+import com.github.mathsanalysis.vshulker.listener.ShulkerSessionListener;
 import com.github.mathsanalysis.vshulker.manager.VirtualShulkerManager;
-import com.github.mathsanalysis.vshulker.tasks.SessionCleanupTask;
-import com.github.mathsanalysis.vshulker.tasks.SessionValidationTask;
+import com.github.mathsanalysis.vshulker.scan.PlayerDataScanner;
+import com.github.mathsanalysis.vshulker.scan.RegionScanner;
+import com.github.mathsanalysis.vshulker.tasks.LeakSweepTask;
+import com.github.mathsanalysis.vshulker.trace.TraceReplayer;
 import org.bukkit.plugin.java.JavaPlugin;
 import revxrsal.commands.bukkit.BukkitCommandHandler;
 
@@ -16,8 +20,10 @@ public final class VirtualShulkerPlugin extends JavaPlugin {
 
     private VirtualShulkerManager manager;
     private BukkitCommandHandler commandHandler;
-    private SessionCleanupTask cleanupTask;
-    private SessionValidationTask validationTask;
+    private LeakSweepTask sweepTask;
+    private PlayerDataScanner playerDataScanner;
+    private RegionScanner regionScanner;
+    private TraceReplayer traceReplayer;
 
     @Override
     public void onEnable() {
@@ -28,6 +34,10 @@ public final class VirtualShulkerPlugin extends JavaPlugin {
         this.manager = VirtualShulkerManager.getInstance(this);
         manager.initialize();
 
+        this.playerDataScanner = new PlayerDataScanner(this, manager.getMetrics());
+        this.regionScanner = new RegionScanner(this, manager.getMetrics());
+        this.traceReplayer = new TraceReplayer(this, manager);
+
         registerListeners();
         registerCommands();
         startTasks();
@@ -37,18 +47,30 @@ public final class VirtualShulkerPlugin extends JavaPlugin {
         getLogger().info("Mode: NBT-only (no database, no IDs)");
         getLogger().info("Contents stored directly in items");
         getLogger().info("Anti-Dupe: MAXIMUM SECURITY");
-        getLogger().info("Validation: Every 10 ticks (0.5s)");
+        getLogger().info("Validation: Tick-budgeted round-robin");
         getLogger().info("========================================");
     }
 
     @Override
     public void onDisable() {
-        if (validationTask != null) {
-            validationTask.cancel();
+        if (traceReplayer != null) {
+            traceReplayer.stop();
+        }
+
+        if (playerDataScanner != null) {
+            playerDataScanner.cancel();
         }
 
-        if (cleanupTask != null) {
-            cleanupTask.cancel();
+        if (regionScanner != null) {
+            regionScanner.cancel();
+        }
+
+        if (manager != null) {
+            manager.getTickScheduler().stop();
+        }
+
+        if (sweepTask != null) {
+            sweepTask.cancel();
         }
 
         if (commandHandler != null) {
@@ -63,6 +85,10 @@ public final class VirtualShulkerPlugin extends JavaPlugin {
     public void reload() {
         reloadConfig();
         Config.load(this);
+
+        if (manager != null) {
+            manager.getAdminNotifier().refreshAll();
+        }
     }
 
     public static VirtualShulkerPlugin getInstance() {
@@ -73,6 +99,18 @@ public final class VirtualShulkerPlugin extends JavaPlugin {
         return manager;
     }
 
+    public PlayerDataScanner getPlayerDataScanner() {
+        return playerDataScanner;
+    }
+
+    public RegionScanner getRegionScanner() {
+        return regionScanner;
+    }
+
+    public TraceReplayer getTraceReplayer() {
+        return traceReplayer;
+    }
+
     private void registerListeners() {
         getServer().getPluginManager().registerEvents(
                 new ShulkerListener(manager),
@@ -83,6 +121,14 @@ public final class VirtualShulkerPlugin extends JavaPlugin {
                 new ShulkerBlockListener(this, manager),
                 this
         );
+
+        getServer().getPluginManager().registerEvents(
+                new AdminListener(manager.getAdminNotifier()),
+                this
+        );
+
+        manager.bindSessionListener(new ShulkerSessionListener(manager));
+        manager.getAdminNotifier().refreshAll();
     }
 
     private void registerCommands() {
@@ -91,10 +137,9 @@ public final class VirtualShulkerPlugin extends JavaPlugin {
     }
 
     private void startTasks() {
-        cleanupTask = new SessionCleanupTask(this, manager);
-        cleanupTask.start();
+        manager.getTickScheduler().start();
 
-        validationTask = new SessionValidationTask(this, manager);
-        validationTask.start();
+        sweepTask = new LeakSweepTask(this, manager);
+        sweepTask.start();
     }
 }
\ No newline at end of file
@@ -2,16 +2,31 @@ package com.github.mathsanalysis.vshulker.command;
 
 import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
 import com.github.mathsanalysis.vshulker.config.Config;
+import com.github.mathsanalysis.vshulker.config.MessageKey;
+import com.github.mathsanalysis.vshulker.manager.ContentsIndex;
+import com.github.mathsanalysis.vshulker.metrics.MapFootprint;
+import com.github.mathsanalysis.vshulker.security.DuplicateSketch;
+import com.github.mathsanalysis.vshulker.trace.TraceRecorder;
+import com.github.mathsanalysis.vshulker.utils.ShulkerContents;
+import com.github.mathsanalysis.vshulker.validation.Trigger;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
 import revxrsal.commands.annotation.Command;
+import revxrsal.commands.annotation.Default;
 import revxrsal.commands.annotation.Optional;
 import revxrsal.commands.annotation.Subcommand;
+import revxrsal.commands.annotation.Switch;
 import revxrsal.commands.bukkit.annotation.CommandPermission;
 
+import java.io.File;
+import java.util.List;
+import java.util.UUID;
+
 @Command("virtualshulker")
 @CommandPermission("virtualshulker.command.use")
 public record ShulkerCommand(VirtualShulkerPlugin plugin) {
@@ -20,7 +35,7 @@ public record ShulkerCommand(VirtualShulkerPlugin plugin) {
     @CommandPermission("virtualshulker.command.reload")
     public void reload(CommandSender sender) {
         plugin.reload();
-        sender.sendMessage(Config.getMessageReload());
+        sender.sendMessage(Config.get().messages().get(MessageKey.RELOAD));
     }
 
     @Subcommand("debug")
@@ -62,6 +77,154 @@ public record ShulkerCommand(VirtualShulkerPlugin plugin) {
         sender.sendMessage(Component.text("✓ Cleanup completed!", NamedTextColor.GREEN));
     }
 
+    @Subcommand("find")
+    @CommandPermission("virtualshulker.command.find")
+    public void find(CommandSender sender, Material material, @Optional Player target) {
+        if (target == null && sender instanceof Player) {
+            target = (Player) sender;
+        }
+
+        if (target == null) {
+            sender.sendMessage(Component.text("Usage: /virtualshulker find <material> <player>", NamedTextColor.RED));
+            return;
+        }
+
+        if (target != sender && !sender.hasPermission("virtualshulker.command.find.others")) {
+            sender.sendMessage(Config.get().messages().get(MessageKey.NO_PERMISSION));
+            return;
+        }
+
+        List<ContentsIndex.Match> matches = plugin.getManager().getContentsIndex().find(target, material);
+
+        if (matches.isEmpty()) {
+            sender.sendMessage(Component.text("No " + material.name() + " found in " + target.getName() + "'s shulkers", NamedTextColor.YELLOW));
+            return;
+        }
+
+        int total = 0;
+        for (ContentsIndex.Match match : matches) {
+            total += match.amount();
+        }
+
+        sender.sendMessage(Component.text("Found " + total + "x " + material.name() + " in " + matches.size()
+                + " shulker(s) of " + target.getName() + ":", NamedTextColor.GOLD));
+        for (ContentsIndex.Match match : matches) {
+            String location = (match.slot().enderChest() ? "Ender chest" : "Inventory") + " slot " + match.slot().index();
+            sender.sendMessage(Component.text("  " + location + " (" + match.shulkerType().name() + "): ", NamedTextColor.YELLOW)
+                    .append(Component.text(match.amount(), NamedTextColor.WHITE)));
+        }
+    }
+
+    @Subcommand("scan playerdata")
+    @CommandPermission("virtualshulker.command.scan")
+    public void scanPlayerData(CommandSender sender) {
+        if (!plugin.getPlayerDataScanner().start(sender)) {
+            sender.sendMessage(Component.text("A playerdata scan is already running", NamedTextColor.RED));
+        }
+    }
+
+    @Subcommand("scan regions")
+    @CommandPermission("virtualshulker.command.scan")
+    public void scanRegions(CommandSender sender, @Switch("quarantine") boolean quarantine) {
+        if (!plugin.getRegionScanner().start(sender, quarantine)) {
+            sender.sendMessage(Component.text("A region scan is already running", NamedTextColor.RED));
+        }
+    }
+
+    @Subcommand("record")
+    @CommandPermission("virtualshulker.command.record")
+    public void record(CommandSender sender, String target, String duration) {
+        long ticks = TraceRecorder.parseDurationTicks(duration);
+        if (ticks < 0) {
+            sender.sendMessage(Component.text("Invalid duration: " + duration + " (use e.g. 30s, 10m, 1h)", NamedTextColor.RED));
+            return;
+        }
+
+        List<UUID> targets = null;
+        if (!target.equalsIgnoreCase("all")) {
+            Player player = Bukkit.getPlayerExact(target);
+            if (player == null) {
+                sender.sendMessage(Component.text("Player not online: " + target, NamedTextColor.RED));
+                return;
+            }
+            targets = List.of(player.getUniqueId());
+        }
+
+        if (!plugin.getManager().getTraceRecorder().start(sender, targets, ticks)) {
+            sender.sendMessage(Component.text("A recording is already running, stop it with /vs record stop", NamedTextColor.RED));
+        }
+    }
+
+    @Subcommand("record stop")
+    @CommandPermission("virtualshulker.command.record")
+    public void recordStop(CommandSender sender) {
+        if (!plugin.getManager().getTraceRecorder().stop("stopped by " + sender.getName())) {
+            sender.sendMessage(Component.text("No recording is running", NamedTextColor.YELLOW));
+        }
+    }
+
+    @Subcommand("replay")
+    @CommandPermission("virtualshulker.command.replay")
+    public void replay(CommandSender sender, String trace, Player target, @Default("1") double speed, @Optional String source) {
+        File file = plugin.getTraceReplayer().resolve(trace);
+        if (file == null) {
+            sender.sendMessage(Component.text("Trace not found: " + trace, NamedTextColor.RED));
+            return;
+        }
+
+        if (!plugin.getTraceReplayer().start(sender, file, target, speed, source)) {
+            sender.sendMessage(Component.text("A replay is already running, stop it with /vs replay stop", NamedTextColor.RED));
+        }
+    }
+
+    @Subcommand("replay stop")
+    @CommandPermission("virtualshulker.command.replay")
+    public void replayStop(CommandSender sender) {
+        if (!plugin.getTraceReplayer().stop()) {
+            sender.sendMessage(Component.text("No replay is running", NamedTextColor.YELLOW));
+        }
+    }
+
+    @Subcommand("dupes")
+    @CommandPermission("virtualshulker.command.dupes")
+    public void dupes(CommandSender sender) {
+        DuplicateSketch sketch = plugin.getManager().getDuplicateSketch();
+        if (!sketch.isEnabled()) {
+            sender.sendMessage(Component.text("The duplicate sketch is disabled", NamedTextColor.RED));
+            return;
+        }
+
+        List<DuplicateSketch.Flag> flagged = sketch.getFlagged();
+        if (flagged.isEmpty()) {
+            sender.sendMessage(Component.text("No items above the threshold of " + sketch.getThreshold() + " copies", NamedTextColor.GREEN));
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        sender.sendMessage(Component.text("Items seen in at least " + sketch.getThreshold() + " shulker slots:", NamedTextColor.GOLD));
+        for (DuplicateSketch.Flag flag : flagged) {
+            sender.sendMessage(Component.text("  " + flag.material() + " #" + Long.toHexString(flag.fingerprint()) + ": ", NamedTextColor.YELLOW)
+                    .append(Component.text("~" + flag.estimate(), NamedTextColor.RED))
+                    .append(Component.text(" (" + (now - flag.lastSeen()) / 1000 + "s ago)", NamedTextColor.GRAY)));
+        }
+    }
+
+    @Subcommand("dupes check")
+    @CommandPermission("virtualshulker.command.dupes")
+    public void dupesCheck(Player sender) {
+        DuplicateSketch sketch = plugin.getManager().getDuplicateSketch();
+        ItemStack item = sender.getInventory().getItemInMainHand();
+        int estimate = sketch.estimate(item);
+
+        if (estimate < 0) {
+            sender.sendMessage(Component.text("The held item is not tracked by the duplicate sketch", NamedTextColor.YELLOW));
+            return;
+        }
+
+        sender.sendMessage(Component.text("Held " + item.getType() + " #" + Long.toHexString(sketch.fingerprint(item))
+                + " is stored in ~" + estimate + " shulker slots", estimate >= sketch.getThreshold() ? NamedTextColor.RED : NamedTextColor.GREEN));
+    }
+
     @Subcommand("stats")
     @CommandPermission("virtualshulker.command.stats")
     public void stats(CommandSender sender) {
@@ -79,9 +242,80 @@ public record ShulkerCommand(VirtualShulkerPlugin plugin) {
         sender.sendMessage(Component.text("╠═══════════════════════════════════════╣", NamedTextColor.GOLD));
         sender.sendMessage(Component.text("  Online players: " + Bukkit.getOnlinePlayers().size(), NamedTextColor.YELLOW));
         sender.sendMessage(Component.text("  Active sessions: " + playersWithSessions, NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("  Close requests: " + manager.getMetrics().get("close.requests")
+                + " (coalesced: " + manager.getMetrics().get("close.coalesced") + ")", NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("  Admin subscribers: " + manager.getAdminNotifier().getAdminCount()
+                + " (alerts: " + manager.getMetrics().get("alerts.raised") + ", coalesced: "
+                + manager.getMetrics().get("alerts.coalesced") + ")", NamedTextColor.YELLOW));
+        if (manager.getLeaseManager().isEnabled()) {
+            sender.sendMessage(Component.text("  Leases held: " + manager.getLeaseManager().getHeldCount()
+                    + " (denied: " + manager.getMetrics().get("lease.denied") + ", renew batches: "
+                    + manager.getMetrics().get("lease.renew-batches") + ")", NamedTextColor.YELLOW));
+        }
+        if (manager.getJournal().isEnabled()) {
+            sender.sendMessage(Component.text("  Journal: " + manager.getJournal().getSessionCount() + " sessions, "
+                    + (manager.getJournal().getUsedBytes() / 1024) + " KB used (records: "
+                    + manager.getMetrics().get("journal.records") + ", compactions: "
+                    + manager.getMetrics().get("journal.compactions") + ")", NamedTextColor.YELLOW));
+        }
+        sender.sendMessage(Component.text("  Tick scheduler: " + manager.getTickScheduler().getDeferredDepth()
+                + " deferred (max: " + manager.getTickScheduler().getMaxDeferredDepth() + ", overruns: "
+                + manager.getMetrics().get("scheduler.overruns") + ", forced: "
+                + manager.getMetrics().get("scheduler.forced") + ")", NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("  Session races prevented: double save "
+                + manager.getMetrics().get("race.double_save") + ", save after close "
+                + manager.getMetrics().get("race.save_after_close") + ", lost "
+                + manager.getMetrics().get("race.lost_session") + ", double close "
+                + manager.getMetrics().get("race.double_close") + ", reopen "
+                + manager.getMetrics().get("race.open_during_close") + ", overlap "
+                + manager.getMetrics().get("race.autosave_overlap"),
+                manager.getMetrics().get("race.autosave_overlap") > 0 ? NamedTextColor.RED : NamedTextColor.YELLOW));
+        if (manager.getDuplicateSketch().isEnabled()) {
+            sender.sendMessage(Component.text("  Dupe sketch: " + (manager.getDuplicateSketch().getMemoryBytes() / 1024)
+                    + " KB (commits: " + manager.getMetrics().get("sketch.commits") + ", flags: "
+                    + manager.getMetrics().get("sketch.flags") + ")", NamedTextColor.YELLOW));
+        }
+        sender.sendMessage(Component.text("  Inventory pool: " + manager.getInventoryPool().size() + " idle (hits: "
+                + manager.getMetrics().get("inventory.pool.hit") + ", misses: "
+                + manager.getMetrics().get("inventory.pool.miss") + ")", NamedTextColor.YELLOW));
+
+        var explosions = manager.getMetrics().timers().get("explosion.handle");
+        if (explosions != null && explosions.count() > 0) {
+            long blocks = Math.max(1L, manager.getMetrics().get("explosion.blocks"));
+            sender.sendMessage(Component.text(String.format("  Explosions: %d (avg %.1fµs, %.0fns/block, %d shulkers)",
+                    explosions.count(), explosions.averageMicros(), explosions.totalNanos() / (double) blocks,
+                    manager.getMetrics().get("explosion.shulkers")), NamedTextColor.YELLOW));
+        }
+        long retainedBytes = 0;
+        for (MapFootprint footprint : manager.footprint()) {
+            retainedBytes += footprint.estimatedBytes();
+            sender.sendMessage(Component.text(String.format("  Map %s: %d (~%.1f KB)",
+                    footprint.name(), footprint.entries(), footprint.estimatedBytes() / 1024.0), NamedTextColor.GRAY));
+        }
+        sender.sendMessage(Component.text(String.format("  Retained (est.): %.1f KB, swept: %d",
+                retainedBytes / 1024.0, manager.getMetrics().get("sweeper.removed")), NamedTextColor.YELLOW));
+
+        var contentsRead = manager.getMetrics().timers().get("contents.read");
+        var contentsWrite = manager.getMetrics().timers().get("contents.write");
+        if (contentsRead != null || contentsWrite != null) {
+            sender.sendMessage(Component.text(String.format("  Contents I/O (%s): read avg %.1fµs, write avg %.1fµs",
+                    ShulkerContents.usesDataComponents() ? "components" : "block state",
+                    contentsRead != null ? contentsRead.averageMicros() : 0.0,
+                    contentsWrite != null ? contentsWrite.averageMicros() : 0.0), NamedTextColor.YELLOW));
+        }
+        for (var stage : manager.getValidationPipeline().describe().entrySet()) {
+            var timer = manager.getMetrics().timers().get("stage." + stage.getKey().name());
+            StringBuilder triggers = new StringBuilder();
+            for (Trigger trigger : stage.getValue()) {
+                triggers.append(triggers.length() == 0 ? "" : ",").append(trigger.key());
+            }
+            sender.sendMessage(Component.text(String.format("  Stage %s [%s, %s]: %d runs, avg %.1fµs, max %.1fµs, %d failed",
+                    stage.getKey().name(), stage.getKey().cost().name().toLowerCase(), triggers,
+                    timer != null ? timer.count() : 0, timer != null ? timer.averageMicros() : 0.0,
+                    timer != null ? timer.maxMicros() : 0.0,
+                    manager.getMetrics().get("stage." + stage.getKey().name() + ".failed")), NamedTextColor.GRAY));
+        }
         sender.sendMessage(Component.text("  System: NBT-ONLY (Direct Save)", NamedTextColor.GREEN));
-        sender.sendMessage(Component.text("  Database: NONE", NamedTextColor.GREEN));
-        sender.sendMessage(Component.text("  Cache: NONE", NamedTextColor.GREEN));
         sender.sendMessage(Component.text("╚═══════════════════════════════════════╝", NamedTextColor.GOLD));
     }
 
@@ -97,6 +331,18 @@ public record ShulkerCommand(VirtualShulkerPlugin plugin) {
                 .append(Component.text(" - Debug information", NamedTextColor.GRAY)));
         sender.sendMessage(Component.text("  /vs cleanup [player]", NamedTextColor.YELLOW)
                 .append(Component.text(" - Force cleanup", NamedTextColor.GRAY)));
+        sender.sendMessage(Component.text("  /vs find <material> [player]", NamedTextColor.YELLOW)
+                .append(Component.text(" - Search shulker contents", NamedTextColor.GRAY)));
+        sender.sendMessage(Component.text("  /vs scan playerdata", NamedTextColor.YELLOW)
+                .append(Component.text(" - Scan offline playerdata for illegal shulkers", NamedTextColor.GRAY)));
+        sender.sendMessage(Component.text("  /vs scan regions [-quarantine]", NamedTextColor.YELLOW)
+                .append(Component.text(" - Scan region files for illegal placed shulkers", NamedTextColor.GRAY)));
+        sender.sendMessage(Component.text("  /vs record <player|all> <duration>", NamedTextColor.YELLOW)
+                .append(Component.text(" - Record shulker session traffic to a trace", NamedTextColor.GRAY)));
+        sender.sendMessage(Component.text("  /vs replay <trace> <player> [speed] [source]", NamedTextColor.YELLOW)
+                .append(Component.text(" - Replay a trace onto a test player (0 = max speed, test servers only)", NamedTextColor.GRAY)));
+        sender.sendMessage(Component.text("  /vs dupes [check]", NamedTextColor.YELLOW)
+                .append(Component.text(" - Items stored in suspiciously many shulkers", NamedTextColor.GRAY)));
         sender.sendMessage(Component.text("  /vs stats", NamedTextColor.YELLOW)
                 .append(Component.text(" - System statistics", NamedTextColor.GRAY)));
         sender.sendMessage(Component.text("  /vs help", NamedTextColor.YELLOW)
@@ -1,21 +1,29 @@
 package com.github.mathsanalysis.vshulker.config;
 
 import com.github.mathsanalysis.vshulker.utils.MessageUtil;
+import com.github.mathsanalysis.vshulker.validation.Trigger;
 import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.FileWriter;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 public final class Config {
 
-    public static String PERMISSION_USE;
-    public static String PERMISSION_ADMIN;
+    private static final int DEFAULT_SHULKER_SIZE = 27;
+    private static final long DEFAULT_AUTOSAVE_DELAY_TICKS = 2L;
+    private static final long JOURNALED_AUTOSAVE_DELAY_TICKS = 20L;
 
-    private static int shulkerSize;
-    private static String shulkerTitle;
-    private static String messageNoPermission;
-    private static String messageReload;
+    private static volatile PluginSettings settings;
+    private static int generation;
 
     public static void load(JavaPlugin plugin) {
         if (!plugin.getDataFolder().exists()) {
@@ -37,43 +45,179 @@ public final class Config {
         plugin.reloadConfig();
         FileConfiguration config = plugin.getConfig();
 
-        shulkerSize = config.getInt("shulker.size", 27);
-        shulkerTitle = config.getString("shulker.title", "<gold><bold>Virtual Shulker");
+        int shulkerSize = config.getInt("shulker.size", DEFAULT_SHULKER_SIZE);
+        if (shulkerSize % 9 != 0 || shulkerSize < DEFAULT_SHULKER_SIZE || shulkerSize > 54) {
+            plugin.getLogger().warning("Invalid shulker.size " + shulkerSize + " (must be 27, 36, 45 or 54), using " + DEFAULT_SHULKER_SIZE);
+            shulkerSize = DEFAULT_SHULKER_SIZE;
+        }
+
+        int inventoryPoolSize = Math.max(0, config.getInt("shulker.inventory-pool-size", 16));
+        Component shulkerTitle = MessageUtil.parseMessage(config.getString("shulker.title", "<gold><bold>Virtual Shulker"));
 
-        messageNoPermission = config.getString("messages.no-permission", "<red>You don't have permission to use this command!");
-        messageReload = config.getString("messages.reload", "<green>Plugin reloaded successfully!");
+        MessageCatalog messages = MessageCatalog.load(
+                config.getConfigurationSection("messages"),
+                config.getLong("message-throttle-ms", 1000L)
+        );
 
-        PERMISSION_USE = config.getString("shulker.use", "");
-        PERMISSION_ADMIN = config.getString("shulker.admin", "virtualshulker.admin");
+        String usePermission = config.getString("permissions.use", config.getString("shulker.use", ""));
+        String adminPermission = config.getString("permissions.admin", config.getString("shulker.admin", "virtualshulker.admin"));
 
-        if (PERMISSION_USE != null && (PERMISSION_USE.equals("*") || PERMISSION_USE.trim().isEmpty())) {
-            PERMISSION_USE = null;
+        if (usePermission == null || usePermission.equals("*") || usePermission.trim().isEmpty()) {
+            usePermission = null;
             plugin.getLogger().info("Virtual shulker access: EVERYONE (no permission required)");
         } else {
-            plugin.getLogger().info("Virtual shulker access: Permission required (" + PERMISSION_USE + ")");
+            usePermission = usePermission.trim();
+            plugin.getLogger().info("Virtual shulker access: Permission required (" + usePermission + ")");
+        }
+
+        if (adminPermission == null || adminPermission.trim().isEmpty()) {
+            adminPermission = "virtualshulker.admin";
+        }
+
+        long alertWindowTicks = Math.max(0L, config.getLong("alerts.window-ticks", 40L));
+
+        String nodeId = config.getString("lease.node-id", "");
+        if (nodeId == null || nodeId.trim().isEmpty()) {
+            nodeId = "server-" + plugin.getServer().getPort();
+        }
+
+        long leaseTtlMillis = Math.max(3L, config.getLong("lease.ttl-seconds", 15L)) * 1000L;
+        long leaseRenewTicks = Math.max(20L, config.getLong("lease.renew-interval-ticks", 60L));
+        long maxLeaseRenewTicks = leaseTtlMillis / 3L / 50L;
+        if (leaseRenewTicks > maxLeaseRenewTicks) {
+            plugin.getLogger().warning("lease.renew-interval-ticks " + leaseRenewTicks + " is too long for a "
+                    + leaseTtlMillis / 1000L + "s lease.ttl-seconds (leases would expire between renewals), using " + maxLeaseRenewTicks);
+            leaseRenewTicks = maxLeaseRenewTicks;
         }
 
+        LeaseSettings lease = new LeaseSettings(
+                config.getBoolean("lease.enabled", false),
+                nodeId.trim(),
+                config.getString("lease.backend", "sqlite").trim().toLowerCase(Locale.ROOT),
+                config.getString("lease.file", "leases.db"),
+                leaseTtlMillis,
+                leaseRenewTicks
+        );
+
+        JournalSettings journal = new JournalSettings(
+                config.getBoolean("journal.enabled", true),
+                config.getString("journal.file", "sessions.journal"),
+                (int) Math.min(262144L, Math.max(64L, config.getLong("journal.size-kb", 4096L))) * 1024
+        );
+
+        long defaultAutoSaveDelay = journal.enabled() ? JOURNALED_AUTOSAVE_DELAY_TICKS : DEFAULT_AUTOSAVE_DELAY_TICKS;
+        long autoSaveDelayTicks = Math.max(1L, config.getLong("autosave.delay-ticks", defaultAutoSaveDelay));
+
+        long validationIntervalTicks = Math.max(1L, config.getLong("scheduler.validation-interval-ticks", 1L));
+        SchedulerSettings scheduler = new SchedulerSettings(
+                Math.max(50L, config.getLong("scheduler.budget-us", 2000L)),
+                validationIntervalTicks,
+                Math.max(validationIntervalTicks, config.getLong("scheduler.max-defer-ticks", 20L)),
+                Math.max(1.0, config.getDouble("scheduler.high-mspt", 45.0)),
+                Math.max(20L, config.getLong("scheduler.cleanup-interval-ticks", 600L))
+        );
+
+        long shutdownDeadlineMillis = Math.max(0L, config.getLong("shutdown.deadline-ms", 5000L));
+
+        long sweepIntervalTicks = Math.max(200L, config.getLong("sweeper.interval-ticks", 6000L));
+        long sweepIdleMillis = Math.max(10L, config.getLong("sweeper.idle-seconds", 300L)) * 1000L;
+
+        Set<Material> sketchMaterials = EnumSet.noneOf(Material.class);
+        List<String> materialNames = config.getStringList("sketch.materials");
+        for (String name : materialNames) {
+            Material material = Material.matchMaterial(name);
+            if (material == null) {
+                plugin.getLogger().warning("Unknown material in sketch.materials: " + name);
+            } else {
+                sketchMaterials.add(material);
+            }
+        }
+
+        int sketchWidth = Integer.highestOneBit((int) Math.min(1 << 22, Math.max(1024L, config.getLong("sketch.width", 65536L))));
+        SketchSettings sketch = new SketchSettings(
+                config.getBoolean("sketch.enabled", true),
+                config.getString("sketch.file", "dupe-sketch.bin"),
+                sketchWidth,
+                Math.min(8, Math.max(2, config.getInt("sketch.depth", 4))),
+                Math.max(2, config.getInt("sketch.threshold", 16)),
+                Math.max(200L, config.getLong("sketch.snapshot-interval-ticks", 12000L)),
+                config.getBoolean("sketch.track-enchanted", true),
+                config.getBoolean("sketch.track-named", true),
+                config.getBoolean("sketch.track-custom-data", true),
+                sketchMaterials
+        );
+
+        Map<String, Set<Trigger>> validationPolicy = new HashMap<>();
+        ConfigurationSection stages = config.getConfigurationSection("validation.stages");
+        if (stages != null) {
+            for (String stage : stages.getKeys(false)) {
+                Set<Trigger> triggers = EnumSet.noneOf(Trigger.class);
+                for (String key : stages.getStringList(stage)) {
+                    Trigger trigger = Trigger.fromKey(key);
+                    if (trigger == null) {
+                        plugin.getLogger().warning("Unknown trigger '" + key + "' for validation stage " + stage);
+                    } else {
+                        triggers.add(trigger);
+                    }
+                }
+                validationPolicy.put(stage, triggers);
+            }
+        }
+
+        String replayWorld = config.getString("replay.world", "");
+        replayWorld = replayWorld == null || replayWorld.trim().isEmpty() ? null : replayWorld.trim();
+
+        settings = new PluginSettings(
+                ++generation,
+                shulkerSize,
+                shulkerTitle,
+                inventoryPoolSize,
+                usePermission,
+                adminPermission.trim(),
+                alertWindowTicks,
+                lease,
+                journal,
+                autoSaveDelayTicks,
+                scheduler,
+                shutdownDeadlineMillis,
+                sweepIntervalTicks,
+                sweepIdleMillis,
+                sketch,
+                Map.copyOf(validationPolicy),
+                replayWorld,
+                messages
+        );
+
         plugin.getLogger().info("Config loaded: size=" + shulkerSize);
     }
 
+    public static PluginSettings get() {
+        return settings;
+    }
+
     private static void createDefaultConfig(java.io.File configFile) {
         try {
             FileWriter writer = new FileWriter(configFile);
 
             writer.write("# Settings file for VirtualShulker\n");
             writer.write("shulker:\n");
-            writer.write("  # Inventory size (must be multiple of 9: 9, 18, 27, 36, 45, 54)\n");
+            writer.write("  # Inventory size (must be a multiple of 9: 27, 36, 45, 54)\n");
             writer.write("  size: 27\n");
             writer.write("  # Inventory title (supports MiniMessage and legacy color codes)\n");
-            writer.write("  title: \"<gold><bold>Virtual Shulker\"\n\n");
+            writer.write("  title: \"<gold><bold>Virtual Shulker\"\n");
+            writer.write("  # Cleared inventories kept for reuse per size (0 disables pooling)\n");
+            writer.write("  inventory-pool-size: 16\n\n");
 
             writer.write("# Messages support MiniMessage and legacy color codes\n");
             writer.write("messages:\n");
-            writer.write("  opened: \"<green>Shulker opened!\"\n");
-            writer.write("  closed: \"<red>Shulker closed!\"\n");
-            writer.write("  closed-damage: \"<red>Shulker automatically closed due to damage!\"\n");
-            writer.write("  no-permission: \"<red>You don't have permission to use this command!\"\n");
-            writer.write("  reload: \"<green>Plugin reloaded successfully!\"\n\n");
+            for (MessageKey key : MessageKey.values()) {
+                writer.write("  " + key.getPath() + ": \"" + key.getDefaultValue() + "\"\n");
+            }
+            writer.write("\n");
+
+            writer.write("# Minimum delay between two identical denial messages (cooldown, \"cannot ...\") to the same player.\n");
+            writer.write("# Violation and \"not saved\" messages are never throttled. 0 disables.\n");
+            writer.write("message-throttle-ms: 1000\n\n");
 
             writer.write("# Plugin permissions\n");
             writer.write("permissions:\n");
@@ -85,27 +229,99 @@ public final class Config {
             writer.write("  #   use: \"virtualshulker.use\"      # Only with permission\n");
             writer.write("  use: \"\"\n");
             writer.write("  # Permission for admin commands (always required)\n");
-            writer.write("  admin: \"virtualshulker.admin\"\n");
+            writer.write("  admin: \"virtualshulker.admin\"\n\n");
 
-            writer.close();
-        } catch (java.io.IOException e) {
-            throw new RuntimeException("Failed to create default config.yml", e);
-        }
-    }
+            writer.write("# Anti-dupe alerts sent to admins\n");
+            writer.write("alerts:\n");
+            writer.write("  # Repeated alerts for the same player and check are merged over this window (0 disables)\n");
+            writer.write("  window-ticks: 40\n\n");
 
-    public static int getShulkerSize() {
-        return shulkerSize;
-    }
+            writer.write("# Cross-server session leases (proxy networks sharing player data)\n");
+            writer.write("lease:\n");
+            writer.write("  # Changes require a restart\n");
+            writer.write("  enabled: false\n");
+            writer.write("  # Unique name of this backend (defaults to server-<port>)\n");
+            writer.write("  node-id: \"\"\n");
+            writer.write("  # Lease store implementation: sqlite\n");
+            writer.write("  backend: sqlite\n");
+            writer.write("  # SQLite lock file shared by all backends (relative to the plugin folder)\n");
+            writer.write("  file: \"leases.db\"\n");
+            writer.write("  ttl-seconds: 15\n");
+            writer.write("  # Must be at most a third of ttl-seconds (in ticks) so leases are renewed before they expire\n");
+            writer.write("  renew-interval-ticks: 60\n\n");
 
-    public static Component getShulkerTitle() {
-        return MessageUtil.parseMessage(shulkerTitle);
-    }
+            writer.write("# Crash journal of open session contents, replayed into recovery/ on startup\n");
+            writer.write("journal:\n");
+            writer.write("  # Changes require a restart\n");
+            writer.write("  enabled: true\n");
+            writer.write("  file: \"sessions.journal\"\n");
+            writer.write("  size-kb: 4096\n\n");
 
-    public static Component getMessageNoPermission() {
-        return MessageUtil.parseMessage(messageNoPermission);
-    }
+            writer.write("# Delay before edited contents are written back into the shulker item\n");
+            writer.write("# Defaults to 2 ticks, or 20 when the journal is enabled (the journal covers the longer window)\n");
+            writer.write("autosave:\n");
+            writer.write("  # delay-ticks: 2\n\n");
+
+            writer.write("# When each anti-dupe check runs: click, autosave, commit, periodic\n");
+            writer.write("# slot-identity always runs at commit\n");
+            writer.write("validation:\n");
+            writer.write("  stages:\n");
+            writer.write("    transactions: [commit]\n");
+            writer.write("    slot-identity: [click, autosave, commit, periodic]\n");
+            writer.write("    snapshot: [autosave, commit]\n");
+            writer.write("    modification: [commit]\n");
+            writer.write("    nbt: [autosave, commit]\n\n");
+
+            writer.write("# Per-tick time budget shared by autosaves, session validation and cleanup\n");
+            writer.write("scheduler:\n");
+            writer.write("  budget-us: 2000\n");
+            writer.write("  # Each open session is re-validated at most this often\n");
+            writer.write("  validation-interval-ticks: 1\n");
+            writer.write("  # Deferred work runs regardless of budget or load once it is this late\n");
+            writer.write("  max-defer-ticks: 20\n");
+            writer.write("  # Validation is deferred while the average tick time is above this\n");
+            writer.write("  high-mspt: 45.0\n");
+            writer.write("  cleanup-interval-ticks: 600\n\n");
+
+            writer.write("# Saving open sessions when the server stops\n");
+            writer.write("shutdown:\n");
+            writer.write("  # Time allowed to validate all open sessions; unfinished ones are written to recovery/\n");
+            writer.write("  deadline-ms: 5000\n\n");
+
+            writer.write("# Periodic cleanup of per-player state left behind by offline or idle players\n");
+            writer.write("sweeper:\n");
+            writer.write("  # Changes require a restart\n");
+            writer.write("  interval-ticks: 6000\n");
+            writer.write("  idle-seconds: 300\n\n");
+
+            writer.write("# /vs replay creates real shulkers from recorded contents on the target player.\n");
+            writer.write("# Only grant virtualshulker.command.replay on test servers, never on a live server.\n");
+            writer.write("replay:\n");
+            writer.write("  # World reserved for replays; outside it the target must be in creative or spectator mode\n");
+            writer.write("  world: \"\"\n\n");
 
-    public static Component getMessageReload() {
-        return MessageUtil.parseMessage(messageReload);
+            writer.write("# Server-wide Count-Min sketch of high-value items committed into shulkers\n");
+            writer.write("# Memory is width x depth x 4 bytes regardless of player count\n");
+            writer.write("sketch:\n");
+            writer.write("  # Changes require a restart\n");
+            writer.write("  enabled: true\n");
+            writer.write("  file: \"dupe-sketch.bin\"\n");
+            writer.write("  width: 65536\n");
+            writer.write("  depth: 4\n");
+            writer.write("  # Alert when an identical item is stored in at least this many shulker slots\n");
+            writer.write("  threshold: 16\n");
+            writer.write("  snapshot-interval-ticks: 12000\n");
+            writer.write("  # Only unique items are counted: enchanted, renamed or carrying plugin data\n");
+            writer.write("  # Plain stackables (totems, netherite) are never counted, full shulkers of them are normal\n");
+            writer.write("  track-enchanted: true\n");
+            writer.write("  track-named: true\n");
+            writer.write("  track-custom-data: true\n");
+            writer.write("  # Restrict tracking to unique items of these types (empty tracks every unique item)\n");
+            writer.write("  materials: []\n");
+
+            writer.close();
+        } catch (java.io.IOException e) {
+            throw new RuntimeException("Failed to create default config.yml", e);
+        }
     }
-}
\ No newline at end of file
+}
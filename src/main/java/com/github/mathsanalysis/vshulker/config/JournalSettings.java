@@ -0,0 +1,7 @@
+package com.github.mathsanalysis.vshulker.config;
+
+public record JournalSettings(
+        boolean enabled,
+        String file,
+        int capacityBytes
+) {}
@@ -0,0 +1,10 @@
+package com.github.mathsanalysis.vshulker.config;
+
+public record LeaseSettings(
+        boolean enabled,
+        String nodeId,
+        String backend,
+        String file,
+        long ttlMillis,
+        long renewIntervalTicks
+) {}
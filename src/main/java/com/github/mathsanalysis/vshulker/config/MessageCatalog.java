@@ -0,0 +1,53 @@
+package com.github.mathsanalysis.vshulker.config;
+
+import com.github.mathsanalysis.vshulker.utils.MessageUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import org.bukkit.configuration.ConfigurationSection;
+
+public final class MessageCatalog {
+
+    private static final MessageKey[] KEYS = MessageKey.values();
+
+    private final String[] templates;
+    private final Component[] components;
+    private final long throttleMillis;
+
+    private MessageCatalog(String[] templates, Component[] components, long throttleMillis) {
+        this.templates = templates;
+        this.components = components;
+        this.throttleMillis = throttleMillis;
+    }
+
+    public static MessageCatalog load(ConfigurationSection section, long throttleMillis) {
+        String[] templates = new String[KEYS.length];
+        Component[] components = new Component[KEYS.length];
+
+        for (MessageKey key : KEYS) {
+            String template = section != null
+                    ? section.getString(key.getPath(), key.getDefaultValue())
+                    : key.getDefaultValue();
+
+            templates[key.ordinal()] = template;
+            components[key.ordinal()] = MessageUtil.parseMessage(template);
+        }
+
+        return new MessageCatalog(templates, components, Math.max(0L, throttleMillis));
+    }
+
+    public Component get(MessageKey key) {
+        return components[key.ordinal()];
+    }
+
+    public Component format(MessageKey key, String placeholder, String value) {
+        return MessageUtil.parseMessage(templates[key.ordinal()], Placeholder.unparsed(placeholder, value));
+    }
+
+    public long getThrottleMillis() {
+        return throttleMillis;
+    }
+
+    public static int size() {
+        return KEYS.length;
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.mathsanalysis.vshulker.config;
+
+public enum MessageKey {
+
+    NO_PERMISSION("no-permission", "<red>You don't have permission to use this command!"),
+    RELOAD("reload", "<green>Plugin reloaded successfully!"),
+
+    OPEN_COOLDOWN("open-cooldown", "<red>Please wait before opening another shulker!", true),
+    ALREADY_OPEN("already-open", "<yellow>You already have a shulker open!", true),
+    LOADING("loading", "<yellow>Loading shulker, please wait...", true),
+    INVALID_DATA("invalid-data", "<red>This shulker contains invalid data!"),
+    INVALID_ITEMS("invalid-items", "<red>Shulker contains invalid items!"),
+    LOCATE_FAILED("locate-failed", "<red>Error: Could not locate shulker"),
+    REASON("reason", "<gray>Reason: <reason>"),
+    LEASE_HELD("lease-held", "<red>This shulker session is active on another server, try again in a moment.", true),
+    LEASE_LOST("lease-lost", "<red>Your shulker session moved to another server, it was closed without saving."),
+
+    SUSPICIOUS_ACTIVITY("suspicious-activity", "<dark_red>ANTI-DUPE: Unusual activity detected!"),
+    SHULKER_MOVED("shulker-moved", "<red>Session closed: Shulker was moved!"),
+    SHULKER_REPLACED("shulker-replaced", "<red>Session closed: Shulker was replaced!"),
+    INVENTORY_MANIPULATION("inventory-manipulation", "<dark_red>ANTI-DUPE: Inventory manipulation detected!"),
+    IMPOSSIBLE_CHANGES("impossible-changes", "<dark_red>ANTI-DUPE: Impossible changes detected!"),
+    INVALID_DATA_ON_SAVE("invalid-data-on-save", "<dark_red>ANTI-DUPE: Invalid data detected!"),
+    MANIPULATION_DETECTED("manipulation-detected", "<dark_red>ANTI-DUPE: Manipulation detected!"),
+    VIOLATION_REASON("violation-reason", "<red>Reason: <reason>"),
+    NOT_SAVED("not-saved", "<gold>Changes NOT saved!"),
+
+    CANNOT_MOVE_OPENED("cannot-move-opened", "<red>Cannot move the opened shulker!", true),
+    CANNOT_PLACE_INSIDE("cannot-place-inside", "<red>Cannot place shulker boxes inside!", true),
+    CANNOT_MOVE_SHULKERS("cannot-move-shulkers", "<red>Cannot move shulker boxes!", true),
+    CANNOT_SWAP_SHULKERS("cannot-swap-shulkers", "<red>Cannot swap shulker boxes!", true),
+    CANNOT_COLLECT_SHULKERS("cannot-collect-shulkers", "<red>Cannot collect shulker boxes!", true),
+    CANNOT_DRAG_SHULKERS("cannot-drag-shulkers", "<red>Cannot drag shulker boxes!", true),
+    CANNOT_DROP_SHULKERS("cannot-drop-shulkers", "<red>Cannot drop shulker boxes!", true),
+    CANNOT_DROP_OPENED("cannot-drop-opened", "<red>Cannot drop the opened shulker!", true),
+    CANNOT_SWAP_OPENED("cannot-swap-opened", "<red>Cannot swap the opened shulker!", true),
+    CANNOT_CHANGE_HELD("cannot-change-held", "<red>Cannot change held item!", true),
+    CANNOT_PLACE_OPENED("cannot-place-opened", "<red>Cannot place the opened shulker!", true),
+    CLOSE_FIRST("close-first", "<red>Close your virtual shulker first!", true);
+
+    private final String path;
+    private final String defaultValue;
+    private final boolean throttled;
+
+    MessageKey(String path, String defaultValue) {
+        this(path, defaultValue, false);
+    }
+
+    MessageKey(String path, String defaultValue, boolean throttled) {
+        this.path = path;
+        this.defaultValue = defaultValue;
+        this.throttled = throttled;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    public boolean isThrottled() {
+        return throttled;
+    }
+}
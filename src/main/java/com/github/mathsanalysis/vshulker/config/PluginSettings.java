@@ -0,0 +1,33 @@
+package com.github.mathsanalysis.vshulker.config;
+
+import com.github.mathsanalysis.vshulker.validation.Trigger;
+import net.kyori.adventure.text.Component;
+
+import java.util.Map;
+import java.util.Set;
+
+public record PluginSettings(
+        int generation,
+        int shulkerSize,
+        Component shulkerTitle,
+        int inventoryPoolSize,
+        String usePermission,
+        String adminPermission,
+        long alertWindowTicks,
+        LeaseSettings lease,
+        JournalSettings journal,
+        long autoSaveDelayTicks,
+        SchedulerSettings scheduler,
+        long shutdownDeadlineMillis,
+        long sweepIntervalTicks,
+        long sweepIdleMillis,
+        SketchSettings sketch,
+        Map<String, Set<Trigger>> validationPolicy,
+        String replayWorld,
+        MessageCatalog messages
+) {
+
+    public boolean requiresUsePermission() {
+        return usePermission != null;
+    }
+}
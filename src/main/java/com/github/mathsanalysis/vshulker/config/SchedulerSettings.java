@@ -0,0 +1,9 @@
+package com.github.mathsanalysis.vshulker.config;
+
+public record SchedulerSettings(
+        long budgetMicros,
+        long validationIntervalTicks,
+        long maxDeferTicks,
+        double highMspt,
+        long cleanupIntervalTicks
+) {}
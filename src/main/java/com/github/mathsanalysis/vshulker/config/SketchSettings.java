@@ -0,0 +1,18 @@
+package com.github.mathsanalysis.vshulker.config;
+
+import org.bukkit.Material;
+
+import java.util.Set;
+
+public record SketchSettings(
+        boolean enabled,
+        String file,
+        int width,
+        int depth,
+        int threshold,
+        long snapshotIntervalTicks,
+        boolean trackEnchanted,
+        boolean trackNamed,
+        boolean trackCustomData,
+        Set<Material> materials
+) {}
@@ -0,0 +1,28 @@
+package com.github.mathsanalysis.vshulker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("vshulker.AntiDupeBlock")
+@Label("Anti-Dupe Block")
+@Category({"VirtualShulker", "Anti-Dupe"})
+@Enabled(false)
+@StackTrace(false)
+public final class AntiDupeBlockEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("Slot Type")
+    public String slotType;
+
+    @Label("Check")
+    public String check;
+
+    @Label("Reason")
+    public String reason;
+}
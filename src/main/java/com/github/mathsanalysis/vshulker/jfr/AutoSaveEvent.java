@@ -0,0 +1,33 @@
+package com.github.mathsanalysis.vshulker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("vshulker.AutoSave")
+@Label("Auto Save")
+@Category({"VirtualShulker", "Session"})
+@Enabled(false)
+@StackTrace(false)
+public final class AutoSaveEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("Slot Type")
+    public String slotType;
+
+    @Label("Item Count")
+    public int itemCount;
+
+    @Label("Payload")
+    @DataAmount
+    public long payloadBytes;
+
+    @Label("Saved")
+    public boolean saved;
+}
@@ -0,0 +1,28 @@
+package com.github.mathsanalysis.vshulker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("vshulker.ShulkerOpen")
+@Label("Shulker Open")
+@Category({"VirtualShulker", "Session"})
+@Enabled(false)
+@StackTrace(false)
+public final class ShulkerOpenEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("Slot Type")
+    public String slotType;
+
+    @Label("Item Count")
+    public int itemCount;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,38 @@
+package com.github.mathsanalysis.vshulker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("vshulker.ShulkerSave")
+@Label("Shulker Save")
+@Category({"VirtualShulker", "Session"})
+@Enabled(false)
+@StackTrace(false)
+public final class ShulkerSaveEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("Slot Type")
+    public String slotType;
+
+    @Label("Item Count")
+    public int itemCount;
+
+    @Label("Payload")
+    @DataAmount
+    public long payloadBytes;
+
+    @Label("Session Age")
+    @Timespan(Timespan.MILLISECONDS)
+    public long sessionAge;
+
+    @Label("Saved")
+    public boolean saved;
+}
@@ -0,0 +1,27 @@
+package com.github.mathsanalysis.vshulker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("vshulker.SnapshotHash")
+@Label("Snapshot Hash")
+@Category({"VirtualShulker", "Anti-Dupe"})
+@Enabled(false)
+@StackTrace(false)
+public final class SnapshotHashEvent extends Event {
+
+    @Label("Slots")
+    public int slots;
+
+    @Label("Item Count")
+    public int itemCount;
+
+    @Label("Hashed")
+    @DataAmount
+    public long hashedBytes;
+}
@@ -0,0 +1,25 @@
+package com.github.mathsanalysis.vshulker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("vshulker.ValidationSweep")
+@Label("Validation Sweep")
+@Category({"VirtualShulker", "Anti-Dupe"})
+@Enabled(false)
+@StackTrace(false)
+public final class ValidationSweepEvent extends Event {
+
+    @Label("Sessions Checked")
+    public int sessions;
+
+    @Label("Sessions Removed")
+    public int removed;
+
+    @Label("Violations")
+    public int violations;
+}
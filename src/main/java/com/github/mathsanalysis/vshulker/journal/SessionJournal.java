@@ -0,0 +1,423 @@
+package com.github.mathsanalysis.vshulker.journal;
+
+import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
+import com.github.mathsanalysis.vshulker.config.JournalSettings;
+import com.github.mathsanalysis.vshulker.manager.RecoveryStore;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+public final class SessionJournal {
+
+    private static final int MAGIC = 0x56534A31;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_OVERHEAD = 1 + 8 + 16 + 4 + 4 + 4;
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final byte TYPE_OPEN = 1;
+    private static final byte TYPE_SLOT = 2;
+    private static final byte TYPE_CHECKPOINT = 3;
+    private static final byte TYPE_CLOSE = 4;
+
+    private final VirtualShulkerPlugin plugin;
+    private final PluginMetrics metrics;
+    private final File file;
+    private final int capacity;
+    private final Map<UUID, JournaledSession> sessions;
+    private final Set<UUID> dirty;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long epoch;
+    private boolean flushScheduled;
+    private boolean overflowed;
+
+    private SessionJournal(VirtualShulkerPlugin plugin, PluginMetrics metrics, File file, int capacity) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.file = file;
+        this.capacity = capacity;
+        this.sessions = new HashMap<>();
+        this.dirty = new LinkedHashSet<>();
+    }
+
+    public static SessionJournal create(VirtualShulkerPlugin plugin, PluginMetrics metrics, JournalSettings settings) {
+        if (!settings.enabled()) {
+            return new SessionJournal(plugin, metrics, null, 0);
+        }
+
+        File file = new File(settings.file());
+        if (!file.isAbsolute()) {
+            file = new File(plugin.getDataFolder(), settings.file());
+        }
+
+        return new SessionJournal(plugin, metrics, file, settings.capacityBytes());
+    }
+
+    public boolean isEnabled() {
+        return buffer != null;
+    }
+
+    public synchronized List<RecoveryStore.RecoveryEntry> start() {
+        if (file == null) {
+            return List.of();
+        }
+
+        List<RecoveryStore.RecoveryEntry> orphaned;
+
+        try {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+
+            channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int size = (int) Math.max(capacity, Math.min(channel.size(), Integer.MAX_VALUE));
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            orphaned = replay();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Session journal disabled, could not map " + file.getPath() + ": " + e.getMessage());
+            closeChannel();
+            return List.of();
+        }
+
+        reset();
+        plugin.getLogger().info("Session journal enabled (" + (buffer.capacity() / 1024) + " KB, " + file.getName() + ")");
+        return orphaned;
+    }
+
+    public synchronized void open(UUID playerId, String playerName, String slot, Inventory inventory) {
+        if (buffer == null) {
+            return;
+        }
+
+        JournaledSession session = new JournaledSession(inventory, playerName, slot, new ItemStack[inventory.getSize()]);
+        sessions.put(playerId, session);
+        dirty.remove(playerId);
+
+        write(TYPE_OPEN, playerId, inventory.getSize(), session.header());
+        writeDelta(playerId, session);
+    }
+
+    public synchronized void markDirty(UUID playerId) {
+        if (buffer == null || !sessions.containsKey(playerId)) {
+            return;
+        }
+
+        dirty.add(playerId);
+
+        if (!flushScheduled && plugin.isEnabled()) {
+            flushScheduled = true;
+            Bukkit.getScheduler().runTask(plugin, this::flush);
+        }
+    }
+
+    public synchronized void checkpoint(UUID playerId) {
+        JournaledSession session = sessions.get(playerId);
+        if (session == null) {
+            return;
+        }
+
+        dirty.remove(playerId);
+        writeDelta(playerId, session);
+        write(TYPE_CHECKPOINT, playerId, -1, EMPTY);
+    }
+
+    public synchronized void close(UUID playerId) {
+        if (sessions.remove(playerId) == null) {
+            return;
+        }
+
+        dirty.remove(playerId);
+        write(TYPE_CLOSE, playerId, -1, EMPTY);
+
+        if (sessions.isEmpty()) {
+            reset();
+        }
+    }
+
+    public synchronized int getSessionCount() {
+        return sessions.size();
+    }
+
+    public synchronized int getUsedBytes() {
+        return buffer != null ? buffer.position() : 0;
+    }
+
+    public synchronized void shutdown() {
+        if (buffer == null) {
+            return;
+        }
+
+        flush();
+
+        if (sessions.isEmpty()) {
+            reset();
+        }
+
+        buffer.force();
+        closeChannel();
+    }
+
+    private synchronized void flush() {
+        flushScheduled = false;
+
+        if (buffer == null || dirty.isEmpty()) {
+            return;
+        }
+
+        List<UUID> batch = new ArrayList<>(dirty);
+        dirty.clear();
+
+        for (UUID playerId : batch) {
+            JournaledSession session = sessions.get(playerId);
+            if (session != null) {
+                writeDelta(playerId, session);
+            }
+        }
+    }
+
+    private void writeDelta(UUID playerId, JournaledSession session) {
+        ItemStack[] current = session.inventory().getContents();
+        ItemStack[] journaled = session.journaled();
+
+        for (int i = 0; i < current.length && i < journaled.length; i++) {
+            if (isSameStack(current[i], journaled[i])) {
+                continue;
+            }
+
+            boolean empty = current[i] == null || current[i].getType().isAir();
+            write(TYPE_SLOT, playerId, i, empty ? EMPTY : current[i].serializeAsBytes());
+            journaled[i] = empty ? null : current[i].clone();
+        }
+    }
+
+    private void write(byte type, UUID playerId, int slot, byte[] payload) {
+        if (buffer == null) {
+            return;
+        }
+
+        if (append(type, playerId, slot, payload)) {
+            return;
+        }
+
+        compact();
+
+        if (!append(type, playerId, slot, payload)) {
+            metrics.increment("journal.overflow");
+            if (!overflowed) {
+                overflowed = true;
+                plugin.getLogger().warning("Session journal is full, increase journal.size-kb (" + sessions.size() + " open sessions)");
+            }
+        }
+    }
+
+    private boolean append(byte type, UUID playerId, int slot, byte[] payload) {
+        int start = buffer.position();
+        if (start + RECORD_OVERHEAD + payload.length > buffer.capacity()) {
+            return false;
+        }
+
+        buffer.put(type)
+                .putLong(epoch)
+                .putLong(playerId.getMostSignificantBits())
+                .putLong(playerId.getLeastSignificantBits())
+                .putInt(slot)
+                .putInt(payload.length)
+                .put(payload);
+
+        buffer.putInt(checksum(buffer, start, buffer.position()));
+
+        metrics.increment("journal.records");
+        metrics.add("journal.bytes", RECORD_OVERHEAD + payload.length);
+        return true;
+    }
+
+    private void compact() {
+        metrics.increment("journal.compactions");
+        startEpoch();
+
+        for (Map.Entry<UUID, JournaledSession> entry : sessions.entrySet()) {
+            JournaledSession session = entry.getValue();
+            ItemStack[] journaled = session.journaled();
+
+            append(TYPE_OPEN, entry.getKey(), journaled.length, session.header());
+            for (int i = 0; i < journaled.length; i++) {
+                if (journaled[i] != null) {
+                    append(TYPE_SLOT, entry.getKey(), i, journaled[i].serializeAsBytes());
+                }
+            }
+        }
+    }
+
+    private void reset() {
+        startEpoch();
+        overflowed = false;
+    }
+
+    private void startEpoch() {
+        epoch++;
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, 1);
+        buffer.putLong(8, epoch);
+        buffer.position(HEADER_SIZE);
+        buffer.put(HEADER_SIZE, (byte) 0);
+    }
+
+    private List<RecoveryStore.RecoveryEntry> replay() {
+        epoch = buffer.getLong(8);
+
+        if (buffer.getInt(0) != MAGIC) {
+            return List.of();
+        }
+
+        Map<UUID, ReplayState> states = new LinkedHashMap<>();
+        ByteBuffer reader = buffer.duplicate();
+        reader.position(HEADER_SIZE);
+        int records = 0;
+        int unreadable = 0;
+
+        while (reader.remaining() >= RECORD_OVERHEAD) {
+            int start = reader.position();
+            byte type = reader.get();
+            if (type == 0 || reader.getLong() != epoch) {
+                break;
+            }
+
+            UUID playerId = new UUID(reader.getLong(), reader.getLong());
+            int slot = reader.getInt();
+            int length = reader.getInt();
+            if (length < 0 || length > reader.remaining() - 4) {
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            reader.get(payload);
+            if (reader.getInt() != checksum(reader, start, reader.position() - 4)) {
+                break;
+            }
+
+            records++;
+
+            switch (type) {
+                case TYPE_OPEN -> {
+                    String[] header = new String(payload, StandardCharsets.UTF_8).split("\n", 2);
+                    states.put(playerId, new ReplayState(header[0], header.length > 1 ? header[1] : "", new ItemStack[slot]));
+                }
+                case TYPE_SLOT -> {
+                    ReplayState state = states.get(playerId);
+                    if (state == null || slot < 0 || slot >= state.contents.length) {
+                        continue;
+                    }
+
+                    try {
+                        state.contents[slot] = length == 0 ? null : ItemStack.deserializeBytes(payload);
+                    } catch (Exception e) {
+                        unreadable++;
+                    }
+                    state.changedSinceCheckpoint = true;
+                }
+                case TYPE_CHECKPOINT -> {
+                    ReplayState state = states.get(playerId);
+                    if (state != null) {
+                        state.checkpointed = true;
+                        state.changedSinceCheckpoint = false;
+                    }
+                }
+                case TYPE_CLOSE -> states.remove(playerId);
+                default -> {
+                }
+            }
+        }
+
+        metrics.add("journal.replayed", records);
+
+        if (unreadable > 0) {
+            plugin.getLogger().warning("Session journal replay skipped " + unreadable + " unreadable item records");
+        }
+
+        List<RecoveryStore.RecoveryEntry> orphaned = new ArrayList<>(states.size());
+        for (Map.Entry<UUID, ReplayState> entry : states.entrySet()) {
+            ReplayState state = entry.getValue();
+            String reason = state.checkpointed && !state.changedSinceCheckpoint
+                    ? "Server stopped with session open (contents match last autosave)"
+                    : "Server stopped with session open (changes after last autosave)";
+
+            orphaned.add(new RecoveryStore.RecoveryEntry(entry.getKey(), state.playerName, state.slot, state.contents, reason));
+        }
+        return orphaned;
+    }
+
+    private void closeChannel() {
+        buffer = null;
+
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Error closing session journal: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    private static int checksum(ByteBuffer source, int from, int to) {
+        CRC32 crc = new CRC32();
+        crc.update(source.duplicate().limit(to).position(from));
+        return (int) crc.getValue();
+    }
+
+    private static boolean isSameStack(ItemStack a, ItemStack b) {
+        boolean aEmpty = a == null || a.getType().isAir();
+        boolean bEmpty = b == null || b.getType().isAir();
+
+        if (aEmpty || bEmpty) {
+            return aEmpty == bEmpty;
+        }
+
+        return a.getAmount() == b.getAmount() && a.isSimilar(b);
+    }
+
+    private record JournaledSession(Inventory inventory, String playerName, String slot, ItemStack[] journaled) {
+
+        byte[] header() {
+            return (playerName + "\n" + slot).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class ReplayState {
+        private final String playerName;
+        private final String slot;
+        private final ItemStack[] contents;
+        private boolean checkpointed;
+        private boolean changedSinceCheckpoint;
+
+        private ReplayState(String playerName, String slot, ItemStack[] contents) {
+            this.playerName = playerName;
+            this.slot = slot;
+            this.contents = contents;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.mathsanalysis.vshulker.lease;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+public interface LeaseBackend extends AutoCloseable {
+
+    boolean tryAcquire(UUID playerId, String nodeId, long now, long expiresAt);
+
+    Set<UUID> renew(Collection<UUID> playerIds, String nodeId, long expiresAt);
+
+    void release(Collection<UUID> playerIds, String nodeId);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,270 @@
+package com.github.mathsanalysis.vshulker.lease;
+
+import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
+import com.github.mathsanalysis.vshulker.config.LeaseSettings;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public final class LeaseManager {
+
+    private static final long SHUTDOWN_WAIT_MS = 2000L;
+
+    private final VirtualShulkerPlugin plugin;
+    private final PluginMetrics metrics;
+    private final LeaseBackend backend;
+    private final ExecutorService executor;
+    private final String nodeId;
+    private final long ttlMillis;
+    private final long renewIntervalTicks;
+    private final Map<UUID, Long> held;
+    private final Set<UUID> pendingRelease;
+
+    private Consumer<UUID> lostHandler;
+    private BukkitTask flushTask;
+
+    private LeaseManager(VirtualShulkerPlugin plugin, PluginMetrics metrics, LeaseBackend backend,
+                         String nodeId, long ttlMillis, long renewIntervalTicks) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.backend = backend;
+        this.executor = backend != null ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "VirtualShulker-Lease");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.nodeId = nodeId;
+        this.ttlMillis = ttlMillis;
+        this.renewIntervalTicks = renewIntervalTicks;
+        this.held = new ConcurrentHashMap<>();
+        this.pendingRelease = ConcurrentHashMap.newKeySet();
+    }
+
+    public static LeaseManager create(VirtualShulkerPlugin plugin, PluginMetrics metrics, LeaseSettings settings) {
+        if (!settings.enabled()) {
+            return new LeaseManager(plugin, metrics, null, settings.nodeId(), settings.ttlMillis(), settings.renewIntervalTicks());
+        }
+
+        LeaseBackend backend = switch (settings.backend()) {
+            case "sqlite" -> createSqlite(plugin, settings);
+            default -> {
+                plugin.getLogger().warning("Unknown lease.backend '" + settings.backend() + "', using sqlite");
+                yield createSqlite(plugin, settings);
+            }
+        };
+
+        return new LeaseManager(plugin, metrics, backend, settings.nodeId(), settings.ttlMillis(), settings.renewIntervalTicks());
+    }
+
+    private static LeaseBackend createSqlite(VirtualShulkerPlugin plugin, LeaseSettings settings) {
+        File file = new File(settings.file());
+        if (!file.isAbsolute()) {
+            file = new File(plugin.getDataFolder(), settings.file());
+        }
+
+        plugin.getLogger().info("Session leases enabled (node: " + settings.nodeId() + ", backend: sqlite, file: "
+                + file.getAbsolutePath() + ")");
+        return new SqliteLeaseBackend(file);
+    }
+
+    public boolean isEnabled() {
+        return backend != null;
+    }
+
+    public void setLostHandler(Consumer<UUID> lostHandler) {
+        this.lostHandler = lostHandler;
+    }
+
+    public void start() {
+        if (backend == null) {
+            return;
+        }
+
+        flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> submit(this::flush),
+                renewIntervalTicks, renewIntervalTicks);
+    }
+
+    public boolean isHeld(UUID playerId) {
+        return backend == null || held.containsKey(playerId);
+    }
+
+    public void acquire(UUID playerId, Consumer<Boolean> callback) {
+        if (backend == null) {
+            callback.accept(true);
+            return;
+        }
+
+        boolean submitted = submit(() -> {
+            boolean acquired = tryAcquire(playerId);
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, () -> callback.accept(acquired));
+            } else if (acquired) {
+                release(playerId);
+            }
+        });
+
+        if (!submitted) {
+            callback.accept(false);
+        }
+    }
+
+    public void touch(UUID playerId) {
+        held.computeIfPresent(playerId, (id, lastRenewal) -> 0L);
+    }
+
+    public void release(UUID playerId) {
+        if (held.remove(playerId) == null) {
+            return;
+        }
+
+        if (!submit(() -> releaseNow(playerId))) {
+            pendingRelease.add(playerId);
+        }
+    }
+
+    public int getHeldCount() {
+        return held.size();
+    }
+
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        if (backend == null) {
+            return;
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                plugin.getLogger().warning("Lease backend did not drain in time, releasing remaining leases anyway");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        pendingRelease.addAll(held.keySet());
+        held.clear();
+
+        try {
+            backend.release(List.copyOf(pendingRelease), nodeId);
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Failed to release session leases on shutdown: " + e.getMessage());
+        }
+
+        pendingRelease.clear();
+        backend.close();
+    }
+
+    private boolean submit(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private boolean tryAcquire(UUID playerId) {
+        long now = System.currentTimeMillis();
+
+        try {
+            boolean acquired = backend.tryAcquire(playerId, nodeId, now, now + ttlMillis);
+            if (acquired) {
+                held.put(playerId, now);
+                pendingRelease.remove(playerId);
+                metrics.increment("lease.acquired");
+            } else {
+                metrics.increment("lease.denied");
+            }
+            return acquired;
+        } catch (RuntimeException e) {
+            metrics.increment("lease.errors");
+            plugin.getLogger().warning("Lease backend error, denying open: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void releaseNow(UUID playerId) {
+        if (held.containsKey(playerId)) {
+            return;
+        }
+
+        try {
+            backend.release(List.of(playerId), nodeId);
+            metrics.increment("lease.released");
+        } catch (RuntimeException e) {
+            pendingRelease.add(playerId);
+            metrics.increment("lease.errors");
+            plugin.getLogger().warning("Lease release failed, retrying on next flush: " + e.getMessage());
+        }
+    }
+
+    private void flush() {
+        try {
+            flushReleases();
+            flushRenewals();
+        } catch (RuntimeException e) {
+            metrics.increment("lease.errors");
+            plugin.getLogger().warning("Lease flush failed: " + e.getMessage());
+        }
+    }
+
+    private void flushReleases() {
+        if (pendingRelease.isEmpty()) {
+            return;
+        }
+
+        List<UUID> releasing = new ArrayList<>(pendingRelease);
+        pendingRelease.removeAll(releasing);
+        releasing.removeIf(held::containsKey);
+
+        backend.release(releasing, nodeId);
+        metrics.add("lease.released", releasing.size());
+    }
+
+    private void flushRenewals() {
+        long now = System.currentTimeMillis();
+        long renewAfter = ttlMillis / 3;
+
+        List<UUID> due = new ArrayList<>();
+        for (Map.Entry<UUID, Long> entry : held.entrySet()) {
+            if (now - entry.getValue() >= renewAfter) {
+                due.add(entry.getKey());
+            }
+        }
+
+        if (due.isEmpty()) {
+            return;
+        }
+
+        Set<UUID> lost = backend.renew(due, nodeId, now + ttlMillis);
+        for (UUID playerId : due) {
+            if (!lost.contains(playerId)) {
+                held.replace(playerId, now);
+            }
+        }
+
+        metrics.increment("lease.renew-batches");
+        metrics.add("lease.renewed", due.size() - lost.size());
+
+        if (!lost.isEmpty() && lostHandler != null && plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, () -> lost.forEach(lostHandler));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.mathsanalysis.vshulker.lease;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public final class SqliteLeaseBackend implements LeaseBackend {
+
+    private static final int BUSY_TIMEOUT_MS = 250;
+
+    private final Connection connection;
+
+    public SqliteLeaseBackend(File file) {
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+
+            Class.forName("org.sqlite.JDBC");
+            this.connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+                statement.execute("PRAGMA journal_mode = WAL");
+                statement.execute("CREATE TABLE IF NOT EXISTS shulker_leases ("
+                        + "player TEXT PRIMARY KEY, "
+                        + "node TEXT NOT NULL, "
+                        + "expires_at INTEGER NOT NULL)");
+            }
+        } catch (ClassNotFoundException | SQLException e) {
+            throw new IllegalStateException("Failed to open lease database " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized boolean tryAcquire(UUID playerId, String nodeId, long now, long expiresAt) {
+        String sql = "INSERT INTO shulker_leases (player, node, expires_at) VALUES (?, ?, ?) "
+                + "ON CONFLICT(player) DO UPDATE SET node = excluded.node, expires_at = excluded.expires_at "
+                + "WHERE shulker_leases.node = excluded.node OR shulker_leases.expires_at < ?";
+
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, playerId.toString());
+            statement.setString(2, nodeId);
+            statement.setLong(3, expiresAt);
+            statement.setLong(4, now);
+            return statement.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Lease acquire failed for " + playerId, e);
+        }
+    }
+
+    @Override
+    public synchronized Set<UUID> renew(Collection<UUID> playerIds, String nodeId, long expiresAt) {
+        Set<UUID> lost = new HashSet<>();
+        if (playerIds.isEmpty()) {
+            return lost;
+        }
+
+        List<UUID> ordered = List.copyOf(playerIds);
+        String sql = "UPDATE shulker_leases SET expires_at = ? WHERE player = ? AND node = ?";
+
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (UUID playerId : ordered) {
+                    statement.setLong(1, expiresAt);
+                    statement.setString(2, playerId.toString());
+                    statement.setString(3, nodeId);
+                    statement.addBatch();
+                }
+
+                int[] updated = statement.executeBatch();
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        lost.add(ordered.get(i));
+                    }
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollbackQuietly();
+            throw new IllegalStateException("Lease renewal failed", e);
+        } finally {
+            autoCommitQuietly();
+        }
+
+        return lost;
+    }
+
+    @Override
+    public synchronized void release(Collection<UUID> playerIds, String nodeId) {
+        if (playerIds.isEmpty()) {
+            return;
+        }
+
+        String sql = "DELETE FROM shulker_leases WHERE player = ? AND node = ?";
+
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (UUID playerId : playerIds) {
+                    statement.setString(1, playerId.toString());
+                    statement.setString(2, nodeId);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollbackQuietly();
+            throw new IllegalStateException("Lease release failed", e);
+        } finally {
+            autoCommitQuietly();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private void rollbackQuietly() {
+        try {
+            connection.rollback();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private void autoCommitQuietly() {
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException ignored) {
+        }
+    }
+}
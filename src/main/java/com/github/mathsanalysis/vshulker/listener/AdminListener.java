@@ -0,0 +1,30 @@
+package com.github.mathsanalysis.vshulker.listener;
+
+import com.github.mathsanalysis.vshulker.manager.AdminNotifier;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+public record AdminListener(AdminNotifier notifier) implements Listener {
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        notifier.refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        notifier.remove(event.getPlayer().getUniqueId());
+    }
+
+    // Bukkit has no "permissions changed" event. Permission plugins call Player#updateCommands()
+    // after a change, which fires this event, so it stands in for one. Changes that skip the
+    // resend are picked up by the periodic refresh in LeakSweepTask and by /vs reload.
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onCommandsResent(PlayerCommandSendEvent event) {
+        notifier.refresh(event.getPlayer());
+    }
+}
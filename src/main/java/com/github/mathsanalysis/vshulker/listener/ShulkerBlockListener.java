@@ -1,11 +1,16 @@
 package com.github.mathsanalysis.vshulker.listener;
 
 import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
+import com.github.mathsanalysis.vshulker.config.MessageKey;
+import com.github.mathsanalysis.vshulker.manager.CloseRequestQueue;
 import com.github.mathsanalysis.vshulker.manager.VirtualShulkerManager;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+import com.github.mathsanalysis.vshulker.security.ItemAccounting;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.ShulkerBox;
 import org.bukkit.entity.Player;
@@ -23,30 +28,11 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.BlockStateMeta;
 
 import java.util.Iterator;
-import java.util.Set;
+import java.util.List;
+import java.util.UUID;
 
 public class ShulkerBlockListener implements Listener {
 
-    private static final Set<Material> SHULKER_BOXES = Set.of(
-            Material.SHULKER_BOX,
-            Material.WHITE_SHULKER_BOX,
-            Material.ORANGE_SHULKER_BOX,
-            Material.MAGENTA_SHULKER_BOX,
-            Material.LIGHT_BLUE_SHULKER_BOX,
-            Material.YELLOW_SHULKER_BOX,
-            Material.LIME_SHULKER_BOX,
-            Material.PINK_SHULKER_BOX,
-            Material.GRAY_SHULKER_BOX,
-            Material.LIGHT_GRAY_SHULKER_BOX,
-            Material.CYAN_SHULKER_BOX,
-            Material.PURPLE_SHULKER_BOX,
-            Material.BLUE_SHULKER_BOX,
-            Material.BROWN_SHULKER_BOX,
-            Material.GREEN_SHULKER_BOX,
-            Material.RED_SHULKER_BOX,
-            Material.BLACK_SHULKER_BOX
-    );
-
     private final VirtualShulkerPlugin plugin;
     private final VirtualShulkerManager manager;
 
@@ -59,46 +45,41 @@ public class ShulkerBlockListener implements Listener {
     public void onBlockPlace(BlockPlaceEvent event) {
         ItemStack item = event.getItemInHand();
 
-        if (!SHULKER_BOXES.contains(item.getType())) {
+        if (!ItemAccounting.isShulkerBox(item.getType())) {
             return;
         }
 
         if (manager.isOpenedShulker(event.getPlayer(), item)) {
             event.setCancelled(true);
-            event.getPlayer().sendMessage(net.kyori.adventure.text.Component.text(
-                    "Cannot place the opened shulker!",
-                    net.kyori.adventure.text.format.NamedTextColor.RED
-            ));
+            manager.getMessenger().send(event.getPlayer(), MessageKey.CANNOT_PLACE_OPENED);
             return;
         }
 
-        Location location = event.getBlock().getLocation();
-        manager.registerPlacedShulker(location);
+        Block block = event.getBlock();
+        manager.registerPlacedShulker(block, event.getPlayer());
 
-        plugin.getLogger().fine("Registered placed shulker at: " + location);
+        plugin.getLogger().fine("Registered placed shulker at: " + block.getLocation());
     }
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onBlockBreak(BlockBreakEvent event) {
-        if (!SHULKER_BOXES.contains(event.getBlock().getType())) {
+        Block block = event.getBlock();
+
+        if (!ItemAccounting.isShulkerBox(block.getType())) {
             return;
         }
 
-        Location location = event.getBlock().getLocation();
+        UUID owner = manager.unregisterPlacedShulker(block);
+        if (owner == null) {
+            return;
+        }
 
-        if (manager.isPlacedVirtualShulker(location)) {
-            for (Player online : Bukkit.getOnlinePlayers()) {
-                if (manager.hasOpenShulker(online)) {
-                    Bukkit.getScheduler().runTask(plugin, () -> {
-                        manager.closeShulker(online, true, true);
-                        online.closeInventory();
-                    });
-                }
-            }
+        Player ownerPlayer = Bukkit.getPlayer(owner);
+        if (ownerPlayer != null && manager.hasOpenShulker(ownerPlayer)) {
+            manager.requestClose(ownerPlayer, CloseRequestQueue.CloseReason.BLOCK_BREAK);
         }
 
-        manager.unregisterPlacedShulker(location);
-        plugin.getLogger().fine("Unregistered placed shulker at: " + location);
+        plugin.getLogger().fine("Unregistered placed shulker at: " + block.getLocation());
     }
 
     @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
@@ -123,51 +104,74 @@ public class ShulkerBlockListener implements Listener {
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onEntityExplode(EntityExplodeEvent event) {
-        handleExplosion(event.blockList().iterator());
+        handleExplosion(event.blockList());
     }
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onBlockExplode(BlockExplodeEvent event) {
-        handleExplosion(event.blockList().iterator());
+        handleExplosion(event.blockList());
     }
 
-    private void handleExplosion(Iterator<Block> blocks) {
-        while (blocks.hasNext()) {
-            Block block = blocks.next();
+    private void handleExplosion(List<Block> blocks) {
+        if (blocks.isEmpty()) {
+            return;
+        }
 
-            if (!SHULKER_BOXES.contains(block.getType())) {
-                continue;
-            }
+        long start = System.nanoTime();
+        int handled = 0;
 
-            if (!(block.getState() instanceof ShulkerBox shulkerBlock)) {
-                continue;
+        World world = blocks.get(0).getWorld();
+        if (manager.hasPlacedShulkers(world)) {
+            Location location = new Location(world, 0, 0, 0);
+
+            Iterator<Block> iterator = blocks.iterator();
+            while (iterator.hasNext()) {
+                Block block = iterator.next();
+
+                if (!ItemAccounting.isShulkerBox(block.getType()) || !manager.isPlacedVirtualShulker(block)) {
+                    continue;
+                }
+
+                iterator.remove();
+                dropPlacedShulker(block, location);
+                handled++;
             }
+        }
 
-            ItemStack[] contents = shulkerBlock.getInventory().getContents();
+        PluginMetrics metrics = manager.getMetrics();
+        metrics.recordTime("explosion.handle", System.nanoTime() - start);
+        metrics.add("explosion.blocks", blocks.size() + handled);
+        metrics.add("explosion.shulkers", handled);
+    }
 
-            shulkerBlock.getInventory().clear();
-            shulkerBlock.update();
+    private void dropPlacedShulker(Block block, Location location) {
+        manager.unregisterPlacedShulker(block);
 
-            manager.unregisterPlacedShulker(block.getLocation());
+        if (!(block.getState() instanceof ShulkerBox snapshot)) {
+            return;
+        }
 
-            ItemStack drop = new ItemStack(block.getType());
-            if (drop.getItemMeta() instanceof BlockStateMeta blockMeta) {
-                ShulkerBox box = (ShulkerBox) blockMeta.getBlockState();
-                box.getInventory().setContents(contents);
-                blockMeta.setBlockState(box);
-                drop.setItemMeta(blockMeta);
+        ItemStack drop = new ItemStack(block.getType());
+        if (drop.getItemMeta() instanceof BlockStateMeta meta) {
+            meta.setBlockState(snapshot);
+            if (snapshot.customName() != null) {
+                meta.displayName(snapshot.customName());
             }
+            drop.setItemMeta(meta);
+        }
 
-            block.getWorld().dropItemNaturally(block.getLocation(), drop);
-
-            blocks.remove();
+        if (block.getState(false) instanceof ShulkerBox live) {
+            live.getInventory().clear();
         }
+        block.setType(Material.AIR, false);
+
+        block.getWorld().dropItemNaturally(block.getLocation(location), drop);
     }
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onPistonExtend(BlockPistonExtendEvent event) {
         for (Block block : event.getBlocks()) {
-            if (SHULKER_BOXES.contains(block.getType()) && manager.isPlacedVirtualShulker(block.getLocation())) {
+            if (ItemAccounting.isShulkerBox(block.getType()) && manager.isPlacedVirtualShulker(block)) {
                 event.setCancelled(true);
                 plugin.getLogger().fine("Blocked piston extension of virtual shulker");
                 return;
@@ -178,7 +182,7 @@ public class ShulkerBlockListener implements Listener {
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onPistonRetract(BlockPistonRetractEvent event) {
         for (Block block : event.getBlocks()) {
-            if (SHULKER_BOXES.contains(block.getType()) && manager.isPlacedVirtualShulker(block.getLocation())) {
+            if (ItemAccounting.isShulkerBox(block.getType()) && manager.isPlacedVirtualShulker(block)) {
                 event.setCancelled(true);
                 plugin.getLogger().fine("Blocked piston retraction of virtual shulker");
                 return;
@@ -197,7 +201,7 @@ public class ShulkerBlockListener implements Listener {
         }
 
         Block block = event.getClickedBlock();
-        if (block == null || !SHULKER_BOXES.contains(block.getType())) {
+        if (block == null || !ItemAccounting.isShulkerBox(block.getType())) {
             return;
         }
 
@@ -205,10 +209,7 @@ public class ShulkerBlockListener implements Listener {
 
         if (manager.hasOpenShulker(player)) {
             event.setCancelled(true);
-            player.sendMessage(net.kyori.adventure.text.Component.text(
-                    "Close your virtual shulker first!",
-                    net.kyori.adventure.text.format.NamedTextColor.RED
-            ));
+            manager.getMessenger().send(player, MessageKey.CLOSE_FIRST);
             return;
         }
 
@@ -224,24 +225,21 @@ public class ShulkerBlockListener implements Listener {
         }
 
         Block block = event.getBlock();
-        if (!SHULKER_BOXES.contains(block.getType())) {
+        if (!ItemAccounting.isShulkerBox(block.getType())) {
             return;
         }
 
         if (manager.hasOpenShulker(event.getPlayer())) {
             event.setCancelled(true);
-            event.getPlayer().sendMessage(net.kyori.adventure.text.Component.text(
-                    "Close your virtual shulker first!",
-                    net.kyori.adventure.text.format.NamedTextColor.RED
-            ));
+            manager.getMessenger().send(event.getPlayer(), MessageKey.CLOSE_FIRST);
         }
     }
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onBlockFromTo(BlockFromToEvent event) {
         Block toBlock = event.getToBlock();
-        if (SHULKER_BOXES.contains(toBlock.getType())) {
-            if (manager.isPlacedVirtualShulker(toBlock.getLocation())) {
+        if (ItemAccounting.isShulkerBox(toBlock.getType())) {
+            if (manager.isPlacedVirtualShulker(toBlock)) {
                 event.setCancelled(true);
             }
         }
@@ -0,0 +1,157 @@
+package com.github.mathsanalysis.vshulker.manager;
+
+import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
+import com.github.mathsanalysis.vshulker.config.Config;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class AdminNotifier {
+
+    private final VirtualShulkerPlugin plugin;
+    private final PluginMetrics metrics;
+    private final Map<UUID, Player> admins;
+    private final Map<AlertKey, AlertWindow> windows;
+
+    public AdminNotifier(VirtualShulkerPlugin plugin, PluginMetrics metrics) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.admins = new ConcurrentHashMap<>();
+        this.windows = new ConcurrentHashMap<>();
+    }
+
+    public void refresh(Player player) {
+        if (player.isOnline() && player.hasPermission(Config.get().adminPermission())) {
+            admins.put(player.getUniqueId(), player);
+        } else {
+            admins.remove(player.getUniqueId());
+        }
+    }
+
+    public void refreshAll() {
+        admins.clear();
+        for (Player online : Bukkit.getOnlinePlayers()) {
+            refresh(online);
+        }
+    }
+
+    public void remove(UUID playerId) {
+        admins.remove(playerId);
+    }
+
+    public int getAdminCount() {
+        return admins.size();
+    }
+
+    public int getOpenWindows() {
+        return windows.size();
+    }
+
+    public void notify(Player violator, String category, String reason) {
+        metrics.increment("alerts.raised");
+
+        AlertKey key = new AlertKey(violator.getUniqueId(), category);
+        AlertWindow created = new AlertWindow(violator.getName());
+        AlertWindow existing = windows.putIfAbsent(key, created);
+
+        if (existing != null) {
+            existing.suppress(reason);
+            metrics.increment("alerts.coalesced");
+            return;
+        }
+
+        broadcast(buildMessage(violator.getName(), reason, 0));
+
+        long windowTicks = Config.get().alertWindowTicks();
+        if (windowTicks <= 0 || !plugin.isEnabled()) {
+            windows.remove(key);
+            return;
+        }
+
+        Bukkit.getScheduler().runTaskLater(plugin, () -> flush(key), windowTicks);
+    }
+
+    public boolean notifyRecovery(Player player, String fileName) {
+        if (admins.isEmpty()) {
+            return false;
+        }
+
+        metrics.increment("alerts.recovery");
+        broadcast(Component.text()
+                .append(Component.text("[RECOVERY] ", NamedTextColor.DARK_RED))
+                .append(Component.text(player.getName(), NamedTextColor.RED))
+                .append(Component.text(" had a shulker open during an unclean shutdown!", NamedTextColor.YELLOW))
+                .append(Component.newline())
+                .append(Component.text("Contents not restored, see recovery file: ", NamedTextColor.GRAY))
+                .append(Component.text(fileName, NamedTextColor.WHITE))
+                .build());
+        return true;
+    }
+
+    public void clear() {
+        windows.clear();
+        admins.clear();
+    }
+
+    private void flush(AlertKey key) {
+        AlertWindow window = windows.remove(key);
+        if (window == null) {
+            return;
+        }
+
+        synchronized (window) {
+            if (window.suppressed > 0) {
+                broadcast(buildMessage(window.violatorName, window.latestReason, window.suppressed));
+            }
+        }
+    }
+
+    private void broadcast(Component message) {
+        for (Player admin : admins.values()) {
+            if (admin.isOnline()) {
+                admin.sendMessage(message);
+            }
+        }
+    }
+
+    private Component buildMessage(String violatorName, String reason, int repeated) {
+        var builder = Component.text()
+                .append(Component.text("[ANTI-DUPE] ", NamedTextColor.DARK_RED))
+                .append(Component.text(violatorName, NamedTextColor.RED))
+                .append(Component.text(" attempted duplication!", NamedTextColor.YELLOW));
+
+        if (repeated > 0) {
+            long windowSeconds = Math.max(1L, Config.get().alertWindowTicks() / 20L);
+            builder.append(Component.text(" (x" + repeated + " more in " + windowSeconds + "s)", NamedTextColor.GOLD));
+        }
+
+        return builder
+                .append(Component.newline())
+                .append(Component.text(repeated > 0 ? "Latest reason: " : "Reason: ", NamedTextColor.GRAY))
+                .append(Component.text(reason, NamedTextColor.WHITE))
+                .build();
+    }
+
+    private record AlertKey(UUID violator, String category) {}
+
+    private static final class AlertWindow {
+        private final String violatorName;
+        private int suppressed;
+        private String latestReason;
+
+        AlertWindow(String violatorName) {
+            this.violatorName = violatorName;
+        }
+
+        synchronized void suppress(String reason) {
+            suppressed++;
+            latestReason = reason;
+        }
+    }
+}
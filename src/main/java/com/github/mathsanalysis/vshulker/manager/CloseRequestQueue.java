@@ -0,0 +1,87 @@
+package com.github.mathsanalysis.vshulker.manager;
+
+import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public final class CloseRequestQueue {
+
+    private final VirtualShulkerPlugin plugin;
+    private final VirtualShulkerManager manager;
+    private final PluginMetrics metrics;
+    private final Map<UUID, CloseReason> pending;
+    private final AtomicBoolean drainScheduled;
+
+    public CloseRequestQueue(VirtualShulkerPlugin plugin, VirtualShulkerManager manager, PluginMetrics metrics) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.metrics = metrics;
+        this.pending = new ConcurrentHashMap<>();
+        this.drainScheduled = new AtomicBoolean(false);
+    }
+
+    public void request(Player player, CloseReason reason) {
+        metrics.increment("close.requests");
+
+        if (pending.putIfAbsent(player.getUniqueId(), reason) != null) {
+            metrics.increment("close.coalesced");
+            return;
+        }
+
+        if (drainScheduled.compareAndSet(false, true) && plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, this::drain);
+        }
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    public void clear() {
+        pending.clear();
+        drainScheduled.set(false);
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<UUID, CloseReason>> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<UUID, CloseReason> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        for (Map.Entry<UUID, CloseReason> entry : batch) {
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player == null || !manager.hasOpenShulker(player)) {
+                continue;
+            }
+
+            player.closeInventory();
+            manager.closeShulker(player, true, true);
+
+            metrics.increment("close.drained");
+            plugin.getLogger().fine("Closed shulker for " + player.getName() + " (" + entry.getValue() + ")");
+        }
+    }
+
+    public enum CloseReason {
+        DAMAGE,
+        TELEPORT,
+        WORLD_CHANGE,
+        BLOCK_BREAK
+    }
+}
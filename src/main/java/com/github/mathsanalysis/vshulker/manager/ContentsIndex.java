@@ -0,0 +1,189 @@
+package com.github.mathsanalysis.vshulker.manager;
+
+import com.github.mathsanalysis.vshulker.metrics.MapFootprint;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+import com.github.mathsanalysis.vshulker.utils.ShulkerContents;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+public final class ContentsIndex {
+
+    private final PluginMetrics metrics;
+    private final Predicate<Material> isShulkerBox;
+    private final Map<UUID, PlayerIndex> players;
+
+    public ContentsIndex(PluginMetrics metrics, Predicate<Material> isShulkerBox) {
+        this.metrics = metrics;
+        this.isShulkerBox = isShulkerBox;
+        this.players = new ConcurrentHashMap<>();
+    }
+
+    public void invalidate(UUID playerId) {
+        players.remove(playerId);
+    }
+
+    public void update(UUID playerId, IndexedSlot slot, ItemStack shulker, ItemStack[] contents) {
+        PlayerIndex index = players.get(playerId);
+        if (index != null) {
+            index.put(slot, shulker.getType(), fingerprint(shulker), count(contents));
+            metrics.increment("index.updates");
+        }
+    }
+
+    public List<Match> find(Player player, Material material) {
+        PlayerIndex index = players.get(player.getUniqueId());
+
+        if (index != null) {
+            if (isCurrent(index, player.getInventory(), false) && isCurrent(index, player.getEnderChest(), true)) {
+                metrics.increment("index.hits");
+                return index.find(material);
+            }
+            metrics.increment("index.stale");
+        }
+
+        index = build(player);
+        players.put(player.getUniqueId(), index);
+        return index.find(material);
+    }
+
+    public int size() {
+        return players.size();
+    }
+
+    public int sweep(Set<UUID> online) {
+        int before = players.size();
+        players.keySet().removeIf(playerId -> !online.contains(playerId));
+        return Math.max(0, before - players.size());
+    }
+
+    public MapFootprint footprint() {
+        long bytes = 0;
+        for (PlayerIndex index : players.values()) {
+            bytes += MapFootprint.ENTRY_BYTES + index.estimateBytes();
+        }
+        return new MapFootprint("contents index", players.size(), bytes);
+    }
+
+    public void clear() {
+        players.clear();
+    }
+
+    private boolean isCurrent(PlayerIndex index, Inventory inventory, boolean enderChest) {
+        ItemStack[] items = inventory.getContents();
+        for (int i = 0; i < items.length; i++) {
+            ItemStack item = items[i];
+            boolean shulker = item != null && isShulkerBox.test(item.getType());
+            Integer indexed = index.fingerprint(new IndexedSlot(enderChest, i));
+
+            if (shulker ? indexed == null || indexed != fingerprint(item) : indexed != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private PlayerIndex build(Player player) {
+        long start = System.nanoTime();
+        PlayerIndex index = new PlayerIndex();
+
+        indexInventory(index, player.getInventory(), false);
+        indexInventory(index, player.getEnderChest(), true);
+
+        metrics.increment("index.builds");
+        metrics.recordTime("index.build", System.nanoTime() - start);
+        return index;
+    }
+
+    private void indexInventory(PlayerIndex index, Inventory inventory, boolean enderChest) {
+        ItemStack[] items = inventory.getContents();
+        for (int i = 0; i < items.length; i++) {
+            ItemStack item = items[i];
+            if (item != null && isShulkerBox.test(item.getType())) {
+                index.put(new IndexedSlot(enderChest, i), item.getType(), fingerprint(item), count(ShulkerContents.read(item)));
+            }
+        }
+    }
+
+    private static int fingerprint(ItemStack shulker) {
+        return shulker.hashCode();
+    }
+
+    private static Map<Material, Integer> count(ItemStack[] contents) {
+        Map<Material, Integer> counts = new EnumMap<>(Material.class);
+        for (ItemStack item : contents) {
+            if (item != null && !item.getType().isAir()) {
+                counts.merge(item.getType(), item.getAmount(), Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    public record IndexedSlot(boolean enderChest, int index) {}
+
+    public record Match(IndexedSlot slot, Material shulkerType, int amount) {}
+
+    private record SlotEntry(Material shulkerType, int fingerprint, Map<Material, Integer> counts) {}
+
+    private static final class PlayerIndex {
+        private final Map<IndexedSlot, SlotEntry> bySlot = new HashMap<>();
+        private final Map<Material, Map<IndexedSlot, Integer>> byMaterial = new EnumMap<>(Material.class);
+
+        synchronized void put(IndexedSlot slot, Material shulkerType, int fingerprint, Map<Material, Integer> counts) {
+            SlotEntry previous = bySlot.put(slot, new SlotEntry(shulkerType, fingerprint, counts));
+
+            if (previous != null) {
+                for (Material material : previous.counts().keySet()) {
+                    Map<IndexedSlot, Integer> slots = byMaterial.get(material);
+                    if (slots != null) {
+                        slots.remove(slot);
+                        if (slots.isEmpty()) {
+                            byMaterial.remove(material);
+                        }
+                    }
+                }
+            }
+
+            for (Map.Entry<Material, Integer> entry : counts.entrySet()) {
+                byMaterial.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(slot, entry.getValue());
+            }
+        }
+
+        synchronized Integer fingerprint(IndexedSlot slot) {
+            SlotEntry entry = bySlot.get(slot);
+            return entry != null ? entry.fingerprint() : null;
+        }
+
+        synchronized List<Match> find(Material material) {
+            Map<IndexedSlot, Integer> slots = byMaterial.get(material);
+            if (slots == null) {
+                return List.of();
+            }
+
+            List<Match> matches = new ArrayList<>(slots.size());
+            for (Map.Entry<IndexedSlot, Integer> entry : slots.entrySet()) {
+                matches.add(new Match(entry.getKey(), bySlot.get(entry.getKey()).shulkerType(), entry.getValue()));
+            }
+            return matches;
+        }
+
+        synchronized long estimateBytes() {
+            long bytes = 64L + bySlot.size() * 96L;
+            for (Map<IndexedSlot, Integer> slots : byMaterial.values()) {
+                bytes += 48L + slots.size() * 64L;
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.mathsanalysis.vshulker.manager;
+
+import com.github.mathsanalysis.vshulker.config.Config;
+import com.github.mathsanalysis.vshulker.config.PluginSettings;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.Inventory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class InventoryPool {
+
+    private final PluginMetrics metrics;
+    private final Map<Integer, Deque<Inventory>> pools;
+    private int generation;
+
+    public InventoryPool(PluginMetrics metrics) {
+        this.metrics = metrics;
+        this.pools = new HashMap<>();
+        this.generation = Config.get().generation();
+    }
+
+    public Inventory acquire(PluginSettings settings) {
+        checkGeneration(settings);
+
+        int size = settings.shulkerSize();
+        Deque<Inventory> pool = pools.get(size);
+        Inventory inventory = pool != null ? pool.pollFirst() : null;
+
+        if (inventory != null && inventory.isEmpty() && inventory.getViewers().isEmpty()) {
+            metrics.increment("inventory.pool.hit");
+            return inventory;
+        }
+
+        metrics.increment("inventory.pool.miss");
+        return Bukkit.createInventory(null, size, settings.shulkerTitle());
+    }
+
+    public void release(Inventory inventory) {
+        if (inventory == null) {
+            return;
+        }
+
+        PluginSettings settings = Config.get();
+        checkGeneration(settings);
+
+        if (!inventory.getViewers().isEmpty()) {
+            metrics.increment("inventory.pool.rejected");
+            return;
+        }
+
+        inventory.clear();
+
+        if (!inventory.isEmpty()) {
+            metrics.increment("inventory.pool.rejected");
+            return;
+        }
+
+        Deque<Inventory> pool = pools.computeIfAbsent(inventory.getSize(), k -> new ArrayDeque<>());
+        if (pool.size() < settings.inventoryPoolSize()) {
+            pool.addFirst(inventory);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Deque<Inventory> pool : pools.values()) {
+            size += pool.size();
+        }
+        return size;
+    }
+
+    public void clear() {
+        pools.clear();
+    }
+
+    private void checkGeneration(PluginSettings settings) {
+        int current = settings.generation();
+        if (generation != current) {
+            pools.clear();
+            generation = current;
+        }
+    }
+}
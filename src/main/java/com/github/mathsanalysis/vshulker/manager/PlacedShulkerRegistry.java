@@ -0,0 +1,185 @@
+package com.github.mathsanalysis.vshulker.manager;
+
+import com.github.mathsanalysis.vshulker.metrics.MapFootprint;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+public final class PlacedShulkerRegistry {
+
+    private final Map<UUID, Map<Long, ChunkBucket>> worlds;
+
+    public PlacedShulkerRegistry() {
+        this.worlds = new ConcurrentHashMap<>();
+    }
+
+    public void register(Block block, UUID owner) {
+        worlds.computeIfAbsent(block.getWorld().getUID(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(chunkKey(block.getX() >> 4, block.getZ() >> 4), k -> new ChunkBucket())
+                .put(localKey(block.getX(), block.getY(), block.getZ()), owner);
+    }
+
+    public UUID unregister(Block block) {
+        Map<Long, ChunkBucket> chunks = worlds.get(block.getWorld().getUID());
+        if (chunks == null) {
+            return null;
+        }
+
+        long chunkKey = chunkKey(block.getX() >> 4, block.getZ() >> 4);
+        ChunkBucket bucket = chunks.get(chunkKey);
+        if (bucket == null) {
+            return null;
+        }
+
+        UUID owner = bucket.remove(localKey(block.getX(), block.getY(), block.getZ()));
+        if (bucket.isEmpty()) {
+            chunks.remove(chunkKey, bucket);
+        }
+        return owner;
+    }
+
+    public boolean contains(Block block) {
+        return getOwner(block.getWorld(), block.getX(), block.getY(), block.getZ()) != null;
+    }
+
+    public boolean contains(Location location) {
+        World world = location.getWorld();
+        return world != null && getOwner(world, location.getBlockX(), location.getBlockY(), location.getBlockZ()) != null;
+    }
+
+    public UUID getOwner(Block block) {
+        return getOwner(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    public boolean hasAny(World world) {
+        Map<Long, ChunkBucket> chunks = worlds.get(world.getUID());
+        return chunks != null && !chunks.isEmpty();
+    }
+
+    public boolean hasAny(World world, int chunkX, int chunkZ) {
+        Map<Long, ChunkBucket> chunks = worlds.get(world.getUID());
+        return chunks != null && chunks.containsKey(chunkKey(chunkX, chunkZ));
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<Long, ChunkBucket> chunks : worlds.values()) {
+            for (ChunkBucket bucket : chunks.values()) {
+                size += bucket.size();
+            }
+        }
+        return size;
+    }
+
+    public int sweep(Predicate<Block> stillPlaced) {
+        int removed = 0;
+
+        for (Map.Entry<UUID, Map<Long, ChunkBucket>> worldEntry : worlds.entrySet()) {
+            World world = Bukkit.getWorld(worldEntry.getKey());
+            if (world == null) {
+                continue;
+            }
+
+            Map<Long, ChunkBucket> chunks = worldEntry.getValue();
+            for (Map.Entry<Long, ChunkBucket> chunkEntry : chunks.entrySet()) {
+                long chunkKey = chunkEntry.getKey();
+                int chunkX = (int) chunkKey;
+                int chunkZ = (int) (chunkKey >>> 32);
+
+                if (!world.isChunkLoaded(chunkX, chunkZ)) {
+                    continue;
+                }
+
+                ChunkBucket bucket = chunkEntry.getValue();
+                removed += bucket.removeIf(localKey -> !stillPlaced.test(world.getBlockAt(
+                        (chunkX << 4) | ((localKey >> 4) & 15),
+                        localKey >> 8,
+                        (chunkZ << 4) | (localKey & 15))));
+
+                if (bucket.isEmpty()) {
+                    chunks.remove(chunkKey, bucket);
+                }
+            }
+        }
+
+        return removed;
+    }
+
+    public MapFootprint footprint() {
+        int chunks = 0;
+        for (Map<Long, ChunkBucket> worldChunks : worlds.values()) {
+            chunks += worldChunks.size();
+        }
+
+        int entries = size();
+        long bytes = chunks * (MapFootprint.ENTRY_BYTES + 64L) + entries * (48L + MapFootprint.BOXED_BYTES);
+        return new MapFootprint("placed shulkers", entries, bytes);
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+
+    private UUID getOwner(World world, int x, int y, int z) {
+        Map<Long, ChunkBucket> chunks = worlds.get(world.getUID());
+        if (chunks == null) {
+            return null;
+        }
+
+        ChunkBucket bucket = chunks.get(chunkKey(x >> 4, z >> 4));
+        return bucket != null ? bucket.get(localKey(x, y, z)) : null;
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return (chunkX & 0xFFFFFFFFL) | ((chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    private static int localKey(int x, int y, int z) {
+        return (y << 8) | ((x & 15) << 4) | (z & 15);
+    }
+
+    private static final class ChunkBucket {
+        private final Map<Integer, UUID> owners = new HashMap<>(4);
+
+        synchronized void put(int key, UUID owner) {
+            owners.put(key, owner);
+        }
+
+        synchronized UUID get(int key) {
+            return owners.get(key);
+        }
+
+        synchronized UUID remove(int key) {
+            return owners.remove(key);
+        }
+
+        synchronized boolean isEmpty() {
+            return owners.isEmpty();
+        }
+
+        synchronized int size() {
+            return owners.size();
+        }
+
+        synchronized int removeIf(IntPredicate stale) {
+            int removed = 0;
+            Iterator<Integer> iterator = owners.keySet().iterator();
+            while (iterator.hasNext()) {
+                if (stale.test(iterator.next())) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+            return removed;
+        }
+    }
+}
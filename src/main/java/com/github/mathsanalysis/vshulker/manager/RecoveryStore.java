@@ -0,0 +1,72 @@
+package com.github.mathsanalysis.vshulker.manager;
+
+import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+public final class RecoveryStore {
+
+    private final VirtualShulkerPlugin plugin;
+    private final File directory;
+
+    public RecoveryStore(VirtualShulkerPlugin plugin) {
+        this.plugin = plugin;
+        this.directory = new File(plugin.getDataFolder(), "recovery");
+    }
+
+    public File write(String cause, List<RecoveryEntry> entries) {
+        if (entries.isEmpty()) {
+            return null;
+        }
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            plugin.getLogger().severe("Could not create recovery folder: " + directory.getPath());
+            return null;
+        }
+
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File file = new File(directory, cause + "-" + stamp + ".yml");
+
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.set("cause", cause);
+        yaml.set("created", System.currentTimeMillis());
+
+        for (RecoveryEntry entry : entries) {
+            ConfigurationSection section = yaml.createSection("sessions." + entry.playerId());
+            section.set("name", entry.playerName());
+            section.set("slot", entry.slot());
+            section.set("reason", entry.reason());
+
+            ItemStack[] contents = entry.contents();
+            for (int i = 0; i < contents.length; i++) {
+                if (contents[i] != null && !contents[i].getType().isAir()) {
+                    section.set("contents." + i, contents[i]);
+                }
+            }
+        }
+
+        try {
+            yaml.save(file);
+            return file;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to write recovery file " + file.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public record RecoveryEntry(
+            UUID playerId,
+            String playerName,
+            String slot,
+            ItemStack[] contents,
+            String reason
+    ) {}
+}
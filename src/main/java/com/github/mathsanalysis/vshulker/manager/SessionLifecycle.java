@@ -0,0 +1,46 @@
+package com.github.mathsanalysis.vshulker.manager;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public final class SessionLifecycle {
+
+    public enum State {OPEN, SAVING, CLOSING, CLOSED}
+
+    private final AtomicReference<State> state;
+
+    public SessionLifecycle() {
+        this.state = new AtomicReference<>(State.OPEN);
+    }
+
+    public State state() {
+        return state.get();
+    }
+
+    public boolean beginAutoSave() {
+        return state.compareAndSet(State.OPEN, State.SAVING);
+    }
+
+    public boolean endAutoSave() {
+        return state.compareAndSet(State.SAVING, State.OPEN);
+    }
+
+    public boolean beginClose() {
+        while (true) {
+            State current = state.get();
+            if (current == State.CLOSING || current == State.CLOSED) {
+                return false;
+            }
+            if (state.compareAndSet(current, State.CLOSING)) {
+                return true;
+            }
+        }
+    }
+
+    public boolean beginFinalSave() {
+        return state.compareAndSet(State.CLOSING, State.CLOSED);
+    }
+
+    public void discard() {
+        state.set(State.CLOSED);
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.mathsanalysis.vshulker.manager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class SessionRegistry<K, S extends SessionRegistry.Tracked> {
+
+    public interface Tracked {
+        SessionLifecycle lifecycle();
+    }
+
+    public enum OpenResult {OPENED, ALREADY_OPEN, CLOSING}
+
+    private final Map<K, S> active;
+    private final Map<K, S> closing;
+    private final Map<K, S> activeView;
+
+    public SessionRegistry() {
+        this.active = new ConcurrentHashMap<>();
+        this.closing = new ConcurrentHashMap<>();
+        this.activeView = Collections.unmodifiableMap(active);
+    }
+
+    public Map<K, S> active() {
+        return activeView;
+    }
+
+    public Map<K, S> closingSnapshot() {
+        return new HashMap<>(closing);
+    }
+
+    public boolean isClosing(K key) {
+        return closing.containsKey(key);
+    }
+
+    public OpenResult open(K key, S session) {
+        if (closing.containsKey(key)) {
+            return OpenResult.CLOSING;
+        }
+
+        if (active.putIfAbsent(key, session) != null) {
+            return OpenResult.ALREADY_OPEN;
+        }
+
+        if (closing.containsKey(key)) {
+            active.remove(key, session);
+            return OpenResult.CLOSING;
+        }
+
+        return OpenResult.OPENED;
+    }
+
+    public S remove(K key) {
+        return active.remove(key);
+    }
+
+    public S removeDeferred(K key) {
+        S session = active.get(key);
+        if (session == null) {
+            return null;
+        }
+
+        closing.put(key, session);
+        if (!active.remove(key, session)) {
+            closing.remove(key, session);
+            return null;
+        }
+
+        return session;
+    }
+
+    public boolean finishDeferred(K key, S session) {
+        return closing.remove(key, session);
+    }
+
+    public boolean discard(K key, S session) {
+        if (!active.remove(key, session)) {
+            return false;
+        }
+
+        session.lifecycle().discard();
+        return true;
+    }
+
+    public void clear() {
+        active.clear();
+        closing.clear();
+    }
+}
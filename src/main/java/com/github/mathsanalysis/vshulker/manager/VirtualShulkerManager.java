@@ -2,49 +2,121 @@ package com.github.mathsanalysis.vshulker.manager;
 
 import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
 import com.github.mathsanalysis.vshulker.config.Config;
+import com.github.mathsanalysis.vshulker.config.MessageKey;
+import com.github.mathsanalysis.vshulker.jfr.AntiDupeBlockEvent;
+import com.github.mathsanalysis.vshulker.jfr.AutoSaveEvent;
+import com.github.mathsanalysis.vshulker.jfr.ShulkerOpenEvent;
+import com.github.mathsanalysis.vshulker.jfr.ShulkerSaveEvent;
+import com.github.mathsanalysis.vshulker.journal.SessionJournal;
+import com.github.mathsanalysis.vshulker.lease.LeaseManager;
+import com.github.mathsanalysis.vshulker.metrics.MapFootprint;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+import com.github.mathsanalysis.vshulker.security.DuplicateSketch;
 import com.github.mathsanalysis.vshulker.security.NBTValidator;
 import com.github.mathsanalysis.vshulker.security.TransactionTracker;
 import com.github.mathsanalysis.vshulker.security.InventorySnapshot;
+import com.github.mathsanalysis.vshulker.security.ItemAccounting;
+import com.github.mathsanalysis.vshulker.security.ShulkerIdentity;
 import com.github.mathsanalysis.vshulker.security.ValidationResult;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.format.NamedTextColor;
+import com.github.mathsanalysis.vshulker.tasks.TickBudgetScheduler;
+import com.github.mathsanalysis.vshulker.trace.TraceRecorder;
+import com.github.mathsanalysis.vshulker.utils.Messenger;
+import com.github.mathsanalysis.vshulker.validation.SessionFrame;
+import com.github.mathsanalysis.vshulker.validation.StageFailure;
+import com.github.mathsanalysis.vshulker.validation.Trigger;
+import com.github.mathsanalysis.vshulker.validation.ValidationPipeline;
+import com.github.mathsanalysis.vshulker.validation.stage.ModificationStage;
+import com.github.mathsanalysis.vshulker.validation.stage.NbtStage;
+import com.github.mathsanalysis.vshulker.validation.stage.SlotIdentityStage;
+import com.github.mathsanalysis.vshulker.validation.stage.SnapshotStage;
+import com.github.mathsanalysis.vshulker.validation.stage.TransactionStage;
+import com.github.mathsanalysis.vshulker.utils.ShulkerContents;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.BlockStateMeta;
-import org.bukkit.block.ShulkerBox;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public final class VirtualShulkerManager {
 
     private static VirtualShulkerManager instance;
 
     private final VirtualShulkerPlugin plugin;
+    private final SessionRegistry<UUID, ShulkerSession> sessions;
     private final Map<UUID, ShulkerSession> activeSessions;
     private final Set<UUID> loadingPlayers;
-    private final Set<Location> placedShulkerLocations;
+    private final PlacedShulkerRegistry placedShulkers;
     private final TransactionTracker transactionTracker;
     private final InventorySnapshot inventorySnapshot;
     private final Map<UUID, Long> lastOpenTime;
-    private final Map<UUID, Integer> autoSaveScheduled;
+    private final Map<UUID, String> unrecovered;
+    private final PluginMetrics metrics;
+    private final CloseRequestQueue closeRequests;
+    private final InventoryPool inventoryPool;
+    private final Messenger messenger;
+    private final AdminNotifier adminNotifier;
+    private final LeaseManager leaseManager;
+    private final RecoveryStore recoveryStore;
+    private final SessionJournal journal;
+    private final ContentsIndex contentsIndex;
+    private final DuplicateSketch duplicateSketch;
+    private final TickBudgetScheduler tickScheduler;
+    private final ValidationPipeline validationPipeline;
+    private final TraceRecorder traceRecorder;
+
+    private Listener sessionListener;
+    private boolean sessionListenerRegistered;
+    private BukkitTask sessionListenerIdleTask;
 
     private static final long OPEN_COOLDOWN_MS = 200;
-    private static final int AUTO_SAVE_DELAY_TICKS = 2;
+    private static final long SESSION_LISTENER_IDLE_TICKS = 20L * 60;
 
     public VirtualShulkerManager(VirtualShulkerPlugin plugin) {
         this.plugin = plugin;
-        this.activeSessions = new ConcurrentHashMap<>();
+        this.sessions = new SessionRegistry<>();
+        this.activeSessions = sessions.active();
         this.loadingPlayers = ConcurrentHashMap.newKeySet();
-        this.placedShulkerLocations = ConcurrentHashMap.newKeySet();
+        this.placedShulkers = new PlacedShulkerRegistry();
         this.transactionTracker = new TransactionTracker();
         this.inventorySnapshot = new InventorySnapshot();
         this.lastOpenTime = new ConcurrentHashMap<>();
-        this.autoSaveScheduled = new ConcurrentHashMap<>();
+        this.unrecovered = new ConcurrentHashMap<>();
+        this.metrics = new PluginMetrics();
+        this.closeRequests = new CloseRequestQueue(plugin, this, metrics);
+        this.inventoryPool = new InventoryPool(metrics);
+        this.messenger = new Messenger(metrics);
+        this.adminNotifier = new AdminNotifier(plugin, metrics);
+        this.leaseManager = LeaseManager.create(plugin, metrics, Config.get().lease());
+        this.recoveryStore = new RecoveryStore(plugin);
+        this.journal = SessionJournal.create(plugin, metrics, Config.get().journal());
+        this.contentsIndex = new ContentsIndex(metrics, this::isShulkerBox);
+        this.duplicateSketch = DuplicateSketch.create(plugin, metrics, Config.get().sketch());
+        this.tickScheduler = new TickBudgetScheduler(plugin, this, metrics);
+        this.validationPipeline = new ValidationPipeline(plugin.getLogger(), metrics, List.of(
+                new TransactionStage(transactionTracker),
+                new SlotIdentityStage(),
+                new SnapshotStage(inventorySnapshot),
+                new ModificationStage(inventorySnapshot),
+                new NbtStage()
+        ));
+        this.traceRecorder = new TraceRecorder(plugin, metrics);
     }
 
     public static VirtualShulkerManager getInstance(VirtualShulkerPlugin plugin) {
@@ -55,6 +127,11 @@ public final class VirtualShulkerManager {
     }
 
     public void initialize() {
+        leaseManager.setLostHandler(this::onLeaseLost);
+        leaseManager.start();
+        duplicateSketch.start();
+        replayJournal();
+
         plugin.getLogger().info("═══════════════════════════════════════════════");
         plugin.getLogger().info("VirtualShulkerManager initialized");
         plugin.getLogger().info("Mode: MAXIMUM SECURITY");
@@ -68,30 +145,123 @@ public final class VirtualShulkerManager {
         plugin.getLogger().info("═══════════════════════════════════════════════");
     }
 
+    private void replayJournal() {
+        List<RecoveryStore.RecoveryEntry> orphaned = journal.start();
+        if (orphaned.isEmpty()) {
+            return;
+        }
+
+        File file = recoveryStore.write("journal", orphaned);
+        String fileName = file != null ? file.getName() : "FAILED";
+
+        plugin.getLogger().severe("═══════════════════════════════════════════════");
+        plugin.getLogger().severe("UNCLEAN SHUTDOWN DETECTED");
+        plugin.getLogger().severe("Sessions left open: " + orphaned.size());
+        plugin.getLogger().severe("Recovery file: " + fileName);
+        plugin.getLogger().severe("ACTION: Compare with player data before restoring");
+        plugin.getLogger().severe("═══════════════════════════════════════════════");
+
+        for (RecoveryStore.RecoveryEntry entry : orphaned) {
+            unrecovered.put(entry.playerId(), fileName);
+        }
+
+        for (Player online : Bukkit.getOnlinePlayers()) {
+            flagUnrecovered(online);
+        }
+    }
+
+    public void flagUnrecovered(Player player) {
+        String fileName = unrecovered.get(player.getUniqueId());
+        if (fileName == null) {
+            return;
+        }
+
+        plugin.getLogger().warning(player.getName() + " joined with shulker contents from an unclean shutdown still in recovery file "
+                + fileName);
+
+        if (adminNotifier.notifyRecovery(player, fileName)) {
+            unrecovered.remove(player.getUniqueId(), fileName);
+        }
+    }
+
     public void openShulker(Player player, ItemStack shulkerBox) {
-        if (!isShulkerBox(shulkerBox)) {
+        openShulker(player, shulkerBox, null);
+    }
+
+    public void openShulker(Player player, EquipmentSlot hand) {
+        if (hand == EquipmentSlot.OFF_HAND) {
+            openShulker(player, player.getInventory().getItemInOffHand(), new ShulkerSlot(SlotType.OFF_HAND, -1));
+        } else if (hand == EquipmentSlot.HAND) {
+            openShulker(player, player.getInventory().getItemInMainHand(), new ShulkerSlot(SlotType.MAIN_HAND, -1));
+        }
+    }
+
+    public void openShulker(Player player, int slotIndex) {
+        if (slotIndex < 0 || slotIndex >= player.getInventory().getSize()) {
             return;
         }
 
+        openShulker(player, player.getInventory().getItem(slotIndex), new ShulkerSlot(SlotType.INVENTORY, slotIndex));
+    }
+
+    private void openShulker(Player player, ItemStack shulkerBox, ShulkerSlot knownSlot) {
+        ShulkerOpenEvent event = new ShulkerOpenEvent();
+        event.begin();
+
+        String outcome = tryOpenShulker(player, shulkerBox, knownSlot);
+
+        event.end();
+        if (event.shouldCommit()) {
+            ShulkerSession session = activeSessions.get(player.getUniqueId());
+            ShulkerSlot slot = session != null ? session.slot : knownSlot;
+            event.player = player.getName();
+            event.slotType = slot != null ? slot.type.name() : null;
+            event.itemCount = session != null ? countItems(session.inventory.getContents()) : 0;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    private String tryOpenShulker(Player player, ItemStack shulkerBox, ShulkerSlot knownSlot) {
+        if (!isShulkerBox(shulkerBox)) {
+            return "not-shulker";
+        }
+
         UUID playerId = player.getUniqueId();
 
         if (!checkOpenCooldown(playerId)) {
-            player.sendMessage(Component.text("Please wait before opening another shulker!", NamedTextColor.RED));
-            return;
+            messenger.send(player, MessageKey.OPEN_COOLDOWN);
+            return "cooldown";
         }
 
         if (activeSessions.containsKey(playerId)) {
-            player.sendMessage(Component.text("You already have a shulker open!", NamedTextColor.YELLOW));
-            return;
+            messenger.send(player, MessageKey.ALREADY_OPEN);
+            return "already-open";
+        }
+
+        if (sessions.isClosing(playerId)) {
+            reportRace("race.open_during_close", player.getName(), "open while the previous session was still saving");
+            messenger.send(player, MessageKey.LOADING);
+            return "closing";
         }
 
         if (loadingPlayers.contains(playerId)) {
-            player.sendMessage(Component.text("Loading shulker, please wait...", NamedTextColor.YELLOW));
-            return;
+            messenger.send(player, MessageKey.LOADING);
+            return "loading";
         }
 
+        if (!leaseManager.isHeld(playerId)) {
+            loadingPlayers.add(playerId);
+            leaseManager.acquire(playerId, acquired -> resumeOpen(player, shulkerBox, knownSlot, acquired));
+            return "lease-pending";
+        }
+
+        long validateStart = System.nanoTime();
         ValidationResult validation = NBTValidator.validate(shulkerBox);
+        metrics.recordTime("validate.open", System.nanoTime() - validateStart);
         if (!validation.isValid()) {
+            leaseManager.release(playerId);
+
             plugin.getLogger().severe("═══════════════════════════════════════════════");
             plugin.getLogger().severe("NBT VALIDATION FAILED");
             plugin.getLogger().severe("Player: " + player.getName());
@@ -99,23 +269,25 @@ public final class VirtualShulkerManager {
             plugin.getLogger().severe("ACTION: Open blocked, shulker sanitized");
             plugin.getLogger().severe("═══════════════════════════════════════════════");
 
-            player.sendMessage(Component.text("This shulker contains invalid data!", NamedTextColor.RED));
-            player.sendMessage(Component.text("Reason: " + validation.getReason(), NamedTextColor.GRAY));
+            messenger.send(player, MessageKey.INVALID_DATA);
+            messenger.send(player, MessageKey.REASON, "reason", validation.getReason());
 
-            notifyAdmins(player, "Invalid NBT: " + validation.getReason());
-            return;
+            recordBlock(player, knownSlot, "nbt-open", validation.getReason());
+            notifyAdmins(player, "nbt-open", "Invalid NBT: " + validation.getReason());
+            return "invalid-nbt";
         }
 
         loadingPlayers.add(playerId);
         lastOpenTime.put(playerId, System.currentTimeMillis());
+        boolean opened = false;
 
         try {
-            ShulkerSlot slot = findShulkerSlot(player, shulkerBox);
+            ShulkerSlot slot = knownSlot != null ? knownSlot : findShulkerSlot(player, shulkerBox);
 
             if (slot == null) {
                 plugin.getLogger().warning("Could not find shulker in player inventory: " + player.getName());
-                player.sendMessage(Component.text("Error: Could not locate shulker", NamedTextColor.RED));
-                return;
+                messenger.send(player, MessageKey.LOCATE_FAILED);
+                return "slot-not-found";
             }
 
             ItemStack[] contents = getContentsFromNBT(shulkerBox);
@@ -123,8 +295,8 @@ public final class VirtualShulkerManager {
             ValidationResult contentsValidation = NBTValidator.validateInventory(contents);
             if (!contentsValidation.isValid()) {
                 plugin.getLogger().severe("Shulker contents validation failed: " + contentsValidation.getReason());
-                player.sendMessage(Component.text("Shulker contains invalid items!", NamedTextColor.RED));
-                return;
+                messenger.send(player, MessageKey.INVALID_ITEMS);
+                return "invalid-contents";
             }
 
             Inventory inventory = createInventory(contents);
@@ -137,18 +309,59 @@ public final class VirtualShulkerManager {
                     inventory,
                     slot,
                     shulkerBox.clone(),
-                    System.currentTimeMillis()
+                    System.currentTimeMillis(),
+                    new SessionLifecycle(),
+                    duplicateSketch.track(inventory.getContents())
             );
-            activeSessions.put(playerId, session);
+            SessionRegistry.OpenResult result = addSession(playerId, session);
+            if (result == SessionRegistry.OpenResult.CLOSING) {
+                reportRace("race.open_during_close", player.getName(), "previous session started closing during open");
+                inventoryPool.release(inventory);
+                messenger.send(player, MessageKey.LOADING);
+                return "closing";
+            }
+            if (result == SessionRegistry.OpenResult.ALREADY_OPEN) {
+                reportRace("race.lost_session", player.getName(), "open would have replaced a live session");
+                inventoryPool.release(inventory);
+                return "already-open";
+            }
+            journal.open(playerId, player.getName(), slot.toString(), inventory);
+            traceRecorder.open(player, slot.toString(), shulkerBox.getType(), contents);
 
             transactionTracker.recordTransaction(player, TransactionTracker.TransactionType.OPEN, -1, shulkerBox);
 
             player.openInventory(inventory);
+            opened = true;
 
             plugin.getLogger().fine("Opened shulker for " + player.getName() + " from slot: " + slot);
+            return "opened";
 
         } finally {
             loadingPlayers.remove(playerId);
+
+            if (!opened && !activeSessions.containsKey(playerId)) {
+                leaseManager.release(playerId);
+            }
+        }
+    }
+
+    private void resumeOpen(Player player, ItemStack shulkerBox, ShulkerSlot knownSlot, boolean acquired) {
+        UUID playerId = player.getUniqueId();
+
+        if (!loadingPlayers.remove(playerId) || !player.isOnline()) {
+            leaseManager.release(playerId);
+            return;
+        }
+
+        if (!acquired) {
+            messenger.send(player, MessageKey.LEASE_HELD);
+            return;
+        }
+
+        openShulker(player, knownSlot != null ? getCurrentShulkerInSlot(player, knownSlot) : shulkerBox, knownSlot);
+
+        if (!activeSessions.containsKey(playerId)) {
+            leaseManager.release(playerId);
         }
     }
 
@@ -158,148 +371,107 @@ public final class VirtualShulkerManager {
 
     public void closeShulker(Player player, boolean save, boolean scheduled) {
         UUID playerId = player.getUniqueId();
+        boolean deferred = save && !scheduled;
 
-        ShulkerSession session = activeSessions.remove(playerId);
+        ShulkerSession session = deferred ? deferSession(playerId) : removeSession(playerId);
         loadingPlayers.remove(playerId);
 
-        Integer taskId = autoSaveScheduled.remove(playerId);
-        if (taskId != null) {
-            Bukkit.getScheduler().cancelTask(taskId);
-        }
+        tickScheduler.cancelAutoSave(playerId);
 
         if (session == null) {
             return;
         }
 
+        if (!session.lifecycle.beginClose()) {
+            if (deferred) {
+                leaseManager.release(playerId);
+                sessions.finishDeferred(playerId, session);
+            }
+            reportRace("race.double_close", player.getName(), "session closed twice");
+            return;
+        }
+
         transactionTracker.recordTransaction(player, TransactionTracker.TransactionType.CLOSE, -1, null);
 
         if (save) {
-            if (!scheduled) {
-                Bukkit.getScheduler().runTask(plugin, () -> performSave(player, session));
+            if (deferred) {
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    try {
+                        performSave(player, session);
+                    } finally {
+                        leaseManager.release(playerId);
+                        sessions.finishDeferred(playerId, session);
+                    }
+                    inventoryPool.release(session.inventory);
+                });
                 return;
             }
 
             performSave(player, session);
         } else {
+            session.lifecycle.discard();
             plugin.getLogger().info("Shulker closed without save for " + player.getName());
         }
+
+        if (Bukkit.isPrimaryThread()) {
+            inventoryPool.release(session.inventory);
+        }
     }
 
     private void performSave(Player player, ShulkerSession session) {
-        UUID playerId = player.getUniqueId();
-
-        if (transactionTracker.detectSuspiciousActivity(player)) {
-            plugin.getLogger().severe("═══════════════════════════════════════════════");
-            plugin.getLogger().severe("SUSPICIOUS ACTIVITY DETECTED");
-            plugin.getLogger().severe("Player: " + player.getName());
-            plugin.getLogger().severe("ACTION: Save blocked");
-            plugin.getLogger().severe("═══════════════════════════════════════════════");
-
-            notifyAdmins(player, "Suspicious transaction pattern detected");
-            player.sendMessage(Component.text("ANTI-DUPE: Unusual activity detected!", NamedTextColor.DARK_RED));
-            player.sendMessage(Component.text("Changes NOT saved!", NamedTextColor.GOLD));
+        if (!session.lifecycle.beginFinalSave()) {
+            reportRace("race.double_save", player.getName(), "final save on a session in state " + session.lifecycle.state());
             return;
         }
 
-        ItemStack currentShulker = getCurrentShulkerInSlot(player, session.slot);
-
-        if (currentShulker == null || !isShulkerBox(currentShulker)) {
-            String reason = currentShulker == null ? "Shulker disappeared" : "Not a shulker box";
-
-            plugin.getLogger().severe("═══════════════════════════════════════════════");
-            plugin.getLogger().severe("ANTI-DUPE: Shulker disappeared/invalid");
-            plugin.getLogger().severe("Player: " + player.getName());
-            plugin.getLogger().severe("Slot: " + session.slot);
-            plugin.getLogger().severe("Session Duration: " + (System.currentTimeMillis() - session.openTimestamp) + "ms");
-            plugin.getLogger().severe("ACTION: Blocking save");
-            plugin.getLogger().severe("═══════════════════════════════════════════════");
-
-            notifyAdmins(player, reason);
-
-            player.sendMessage(Component.text("Session closed: Shulker was moved!", NamedTextColor.RED));
-            player.sendMessage(Component.text("Changes NOT saved!", NamedTextColor.GOLD));
-            return;
+        ShulkerSaveEvent event = new ShulkerSaveEvent();
+        event.begin();
+
+        boolean saved = commitSave(player, session);
+
+        event.end();
+        if (event.shouldCommit()) {
+            ItemStack[] contents = session.inventory.getContents();
+            event.player = player.getName();
+            event.slotType = session.slot.type.name();
+            event.itemCount = countItems(contents);
+            event.payloadBytes = payloadBytes(contents);
+            event.sessionAge = System.currentTimeMillis() - session.openTimestamp;
+            event.saved = saved;
+            event.commit();
         }
+    }
 
-        if (!isSameShulker(currentShulker, session.originalShulker)) {
-            String reason = "Shulker replaced (original: " + session.originalShulker.getType() +
-                    ", current: " + currentShulker.getType() + ")";
+    private boolean commitSave(Player player, ShulkerSession session) {
+        UUID playerId = player.getUniqueId();
+        SessionFrame frame = captureFrame(player, session);
 
+        StageFailure failure = validationPipeline.run(Trigger.COMMIT, frame);
+        if (failure != null) {
             plugin.getLogger().severe("═══════════════════════════════════════════════");
-            plugin.getLogger().severe("ANTI-DUPE: Shulker was replaced");
+            plugin.getLogger().severe("ANTI-DUPE: " + failure.title());
             plugin.getLogger().severe("Player: " + player.getName());
             plugin.getLogger().severe("Slot: " + session.slot);
-            plugin.getLogger().severe("Original: " + session.originalShulker.getType());
-            plugin.getLogger().severe("Current: " + currentShulker.getType());
-            plugin.getLogger().severe("ACTION: Blocking save");
-            plugin.getLogger().severe("═══════════════════════════════════════════════");
-
-            notifyAdmins(player, reason);
-
-            player.sendMessage(Component.text("Session closed: Shulker was replaced!", NamedTextColor.RED));
-            player.sendMessage(Component.text("Changes NOT saved!", NamedTextColor.GOLD));
-            return;
-        }
-
-        ItemStack[] contents = session.inventory.getContents();
-
-        ValidationResult snapshotValidation = inventorySnapshot.validateAgainstSnapshot(player, contents);
-        if (!snapshotValidation.isValid()) {
-            plugin.getLogger().severe("═══════════════════════════════════════════════");
-            plugin.getLogger().severe("ANTI-DUPE: Inventory manipulation detected");
-            plugin.getLogger().severe("Player: " + player.getName());
-            plugin.getLogger().severe("Reason: " + snapshotValidation.getReason());
-            plugin.getLogger().severe("Detection: UIUtils copy-paste exploit");
+            plugin.getLogger().severe("Stage: " + failure.stage());
+            plugin.getLogger().severe("Reason: " + failure.reason());
+            plugin.getLogger().severe("Session Duration: " + (System.currentTimeMillis() - session.openTimestamp) + "ms");
             plugin.getLogger().severe("ACTION: Blocking save");
             plugin.getLogger().severe("═══════════════════════════════════════════════");
 
-            notifyAdmins(player, "Copy-paste manipulation: " + snapshotValidation.getReason());
-            player.sendMessage(Component.text("ANTI-DUPE: Inventory manipulation detected!", NamedTextColor.DARK_RED));
-            player.sendMessage(Component.text("Changes NOT saved!", NamedTextColor.GOLD));
-            return;
-        }
-
-        ItemStack[] originalContents = transactionTracker.getCheckpoint(player);
-        if (originalContents != null) {
-            ValidationResult modificationCheck = inventorySnapshot.detectImpossibleModifications(
-                    player, originalContents, contents);
-
-            if (!modificationCheck.isValid()) {
-                plugin.getLogger().severe("═══════════════════════════════════════════════");
-                plugin.getLogger().severe("ANTI-DUPE: Impossible modification detected");
-                plugin.getLogger().severe("Player: " + player.getName());
-                plugin.getLogger().severe("Reason: " + modificationCheck.getReason());
-                plugin.getLogger().severe("ACTION: Blocking save");
-                plugin.getLogger().severe("═══════════════════════════════════════════════");
-
-                notifyAdmins(player, "Impossible modification: " + modificationCheck.getReason());
-                player.sendMessage(Component.text("ANTI-DUPE: Impossible changes detected!", NamedTextColor.DARK_RED));
-                player.sendMessage(Component.text("Changes NOT saved!", NamedTextColor.GOLD));
-                return;
-            }
-        }
-
-        ValidationResult validation = NBTValidator.validateInventory(contents);
-        if (!validation.isValid()) {
-            plugin.getLogger().severe("═══════════════════════════════════════════════");
-            plugin.getLogger().severe("ANTI-DUPE: Invalid contents on save");
-            plugin.getLogger().severe("Player: " + player.getName());
-            plugin.getLogger().severe("Reason: " + validation.getReason());
-            plugin.getLogger().severe("ACTION: Blocking save, rolling back to checkpoint");
-            plugin.getLogger().severe("═══════════════════════════════════════════════");
-
-            notifyAdmins(player, "Invalid NBT on save: " + validation.getReason());
-            player.sendMessage(Component.text("ANTI-DUPE: Invalid data detected!", NamedTextColor.DARK_RED));
-            player.sendMessage(Component.text("Changes NOT saved!", NamedTextColor.GOLD));
-            return;
+            recordBlock(player, session.slot, failure.stage(), failure.reason());
+            notifyAdmins(player, failure.stage(), failure.adminReason());
+            messenger.send(player, failure.message());
+            messenger.send(player, MessageKey.NOT_SAVED);
+            return false;
         }
 
-        updateShulkerInSlot(player, session.slot, contents);
+        updateShulkerInSlot(player, session, frame.shulkerContents(), frame.currentShulker());
 
         plugin.getLogger().fine("Saved shulker for " + player.getName() + " to slot: " + session.slot);
 
         transactionTracker.clearPlayer(playerId);
         inventorySnapshot.clearSnapshot(playerId);
+        return true;
     }
 
     private boolean checkOpenCooldown(UUID playerId) {
@@ -328,55 +500,105 @@ public final class VirtualShulkerManager {
     public void scheduleAutoSave(Player player) {
         UUID playerId = player.getUniqueId();
 
-        Integer existingTask = autoSaveScheduled.get(playerId);
-        if (existingTask != null) {
-            Bukkit.getScheduler().cancelTask(existingTask);
+        journal.markDirty(playerId);
+        tickScheduler.requestAutoSave(playerId, Config.get().autoSaveDelayTicks());
+    }
+
+    public void performAutoSave(Player player) {
+        ShulkerSession session = activeSessions.get(player.getUniqueId());
+
+        if (session == null) {
+            return;
+        }
+
+        if (!session.lifecycle.beginAutoSave()) {
+            reportRace("race.save_after_close", player.getName(), "autosave on a session in state " + session.lifecycle.state());
+            return;
         }
 
-        int taskId = Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            performAutoSave(player);
-            autoSaveScheduled.remove(playerId);
-        }, AUTO_SAVE_DELAY_TICKS).getTaskId();
+        AutoSaveEvent event = new AutoSaveEvent();
+        event.begin();
 
-        autoSaveScheduled.put(playerId, taskId);
+        boolean saved;
+        try {
+            saved = commitAutoSave(player, session);
+        } finally {
+            if (!session.lifecycle.endAutoSave()) {
+                reportRace("race.autosave_overlap", player.getName(), "session closed while its autosave was running");
+            }
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            ItemStack[] contents = session.inventory.getContents();
+            event.player = player.getName();
+            event.slotType = session.slot.type.name();
+            event.itemCount = countItems(contents);
+            event.payloadBytes = payloadBytes(contents);
+            event.saved = saved;
+            event.commit();
+        }
     }
 
-    private void performAutoSave(Player player) {
+    private boolean commitAutoSave(Player player, ShulkerSession session) {
         UUID playerId = player.getUniqueId();
-        ShulkerSession session = activeSessions.get(playerId);
+        SessionFrame frame = captureFrame(player, session);
 
-        if (session == null) {
-            return;
+        StageFailure failure = validationPipeline.run(Trigger.AUTOSAVE, frame);
+        if (failure != null) {
+            plugin.getLogger().warning("AUTO-SAVE BLOCKED: " + failure.title() + " for " + player.getName() + " - " + failure.reason());
+            recordBlock(player, session.slot, "autosave-" + failure.stage(), failure.reason());
+            return false;
         }
 
-        ItemStack currentShulker = getCurrentShulkerInSlot(player, session.slot);
+        updateShulkerInSlot(player, session, frame.shulkerContents(), frame.currentShulker());
+        leaseManager.touch(playerId);
+        journal.checkpoint(playerId);
+        return true;
+    }
 
-        if (currentShulker == null || !isShulkerBox(currentShulker) || !isSameShulker(currentShulker, session.originalShulker)) {
-            plugin.getLogger().warning("AUTO-SAVE BLOCKED: Shulker validation failed for " + player.getName());
+    private void onLeaseLost(UUID playerId) {
+        Player player = Bukkit.getPlayer(playerId);
+        if (player == null || !activeSessions.containsKey(playerId)) {
             return;
         }
 
-        ItemStack[] contents = session.inventory.getContents();
+        leaseManager.acquire(playerId, acquired -> {
+            if (!activeSessions.containsKey(playerId)) {
+                leaseManager.release(playerId);
+            } else if (!acquired) {
+                closeLostSession(playerId);
+            }
+        });
+    }
 
-        ValidationResult snapshotValidation = inventorySnapshot.validateAgainstSnapshot(player, contents);
-        if (!snapshotValidation.isValid()) {
-            plugin.getLogger().warning("AUTO-SAVE BLOCKED: Inventory manipulation - " + snapshotValidation.getReason());
+    private void closeLostSession(UUID playerId) {
+        Player player = Bukkit.getPlayer(playerId);
+        if (player == null) {
             return;
         }
 
-        ValidationResult validation = NBTValidator.validateInventory(contents);
-        if (!validation.isValid()) {
-            plugin.getLogger().warning("AUTO-SAVE BLOCKED: Invalid contents for " + player.getName());
-            return;
-        }
+        plugin.getLogger().severe("═══════════════════════════════════════════════");
+        plugin.getLogger().severe("SESSION LEASE LOST");
+        plugin.getLogger().severe("Player: " + player.getName());
+        plugin.getLogger().severe("ACTION: Closing session without save");
+        plugin.getLogger().severe("═══════════════════════════════════════════════");
 
-        updateShulkerInSlot(player, session.slot, contents);
+        notifyAdmins(player, "lease", "Session lease taken by another server");
+
+        closeShulker(player, false);
+        player.closeInventory();
+        messenger.send(player, MessageKey.LEASE_LOST);
     }
 
     public boolean recordTransaction(Player player, TransactionTracker.TransactionType type, int slot, ItemStack item) {
         return transactionTracker.recordTransaction(player, type, slot, item);
     }
 
+    public void requestClose(Player player, CloseRequestQueue.CloseReason reason) {
+        closeRequests.request(player, reason);
+    }
+
     public void performImmediateValidation(Player player) {
         UUID playerId = player.getUniqueId();
         ShulkerSession session = activeSessions.get(playerId);
@@ -385,106 +607,125 @@ public final class VirtualShulkerManager {
             return;
         }
 
-        ItemStack currentShulker = getCurrentShulkerInSlot(player, session.slot);
+        StageFailure failure = validationPipeline.run(Trigger.CLICK, deferredFrame(player, session));
 
-        if (currentShulker == null || !isShulkerBox(currentShulker) || !isSameShulker(currentShulker, session.originalShulker)) {
-            String reason = currentShulker == null ? "Shulker NULL" :
-                    !isShulkerBox(currentShulker) ? "Not a shulker" :
-                            "Shulker replaced";
+        if (failure != null) {
+            String reason = failure.reason();
 
             plugin.getLogger().severe("═══════════════════════════════════════════════");
             plugin.getLogger().severe("IMMEDIATE VALIDATION FAILED");
             plugin.getLogger().severe("Player: " + player.getName());
+            plugin.getLogger().severe("Stage: " + failure.stage());
             plugin.getLogger().severe("Reason: " + reason);
             plugin.getLogger().severe("ACTION: Closing session without save, scheduling close");
             plugin.getLogger().severe("═══════════════════════════════════════════════");
 
-            notifyAdmins(player, reason);
+            if (!discardSession(playerId, session)) {
+                reportRace("race.lost_session", player.getName(), "violation raced a session change");
+                return;
+            }
 
-            activeSessions.remove(playerId);
+            recordBlock(player, session.slot, "immediate", reason);
+            notifyAdmins(player, failure.stage(), reason);
 
             String finalReason = reason;
             Bukkit.getScheduler().runTask(plugin, () -> {
                 player.closeInventory();
-                player.sendMessage(Component.text("ANTI-DUPE: Manipulation detected!", NamedTextColor.DARK_RED));
-                player.sendMessage(Component.text("Reason: " + finalReason, NamedTextColor.RED));
-                player.sendMessage(Component.text("Changes NOT saved!", NamedTextColor.GOLD));
+                messenger.send(player, MessageKey.MANIPULATION_DETECTED);
+                messenger.send(player, MessageKey.VIOLATION_REASON, "reason", finalReason);
+                messenger.send(player, MessageKey.NOT_SAVED);
             });
         }
     }
 
-    public void validateAllSessions() {
-        for (Map.Entry<UUID, ShulkerSession> entry : new HashMap<>(activeSessions).entrySet()) {
-            Player player = Bukkit.getPlayer(entry.getKey());
-            if (player == null || !player.isOnline()) {
-                activeSessions.remove(entry.getKey());
-                continue;
-            }
+    public ValidationOutcome validateSession(UUID playerId) {
+        ShulkerSession session = activeSessions.get(playerId);
+        if (session == null) {
+            return ValidationOutcome.REMOVED;
+        }
 
-            ShulkerSession session = entry.getValue();
-            ItemStack currentShulker = getCurrentShulkerInSlot(player, session.slot);
-
-            boolean manipulated = false;
-            String reason = "";
-
-            if (currentShulker == null) {
-                manipulated = true;
-                reason = "Shulker is NULL";
-            } else if (!isShulkerBox(currentShulker)) {
-                manipulated = true;
-                reason = "Item is not a shulker box (type: " + currentShulker.getType() + ")";
-            } else if (!isSameShulker(currentShulker, session.originalShulker)) {
-                manipulated = true;
-                reason = "Shulker was replaced (original: " + session.originalShulker.getType() + ", current: " + currentShulker.getType() + ")";
-            }
+        Player player = Bukkit.getPlayer(playerId);
+        if (player == null || !player.isOnline()) {
+            discardSession(playerId, session);
+            return ValidationOutcome.REMOVED;
+        }
 
-            if (manipulated) {
-                plugin.getLogger().severe("═══════════════════════════════════════════════");
-                plugin.getLogger().severe("ANTI-DUPE SYSTEM TRIGGERED");
-                plugin.getLogger().severe("═══════════════════════════════════════════════");
-                plugin.getLogger().severe("Player: " + player.getName() + " (UUID: " + player.getUniqueId() + ")");
-                plugin.getLogger().severe("Reason: " + reason);
-                plugin.getLogger().severe("Slot Type: " + session.slot.type);
-                plugin.getLogger().severe("Slot Index: " + session.slot.slotIndex);
-                plugin.getLogger().severe("Session Age: " + (System.currentTimeMillis() - session.openTimestamp) + "ms");
-                plugin.getLogger().severe("Location: " + player.getLocation().getBlockX() + ", " +
-                        player.getLocation().getBlockY() + ", " +
-                        player.getLocation().getBlockZ());
-                plugin.getLogger().severe("World: " + player.getWorld().getName());
-                plugin.getLogger().severe("═══════════════════════════════════════════════");
-                plugin.getLogger().severe("ACTION: Closing session without save (scheduled)");
-                plugin.getLogger().severe("═══════════════════════════════════════════════");
+        StageFailure failure = validationPipeline.run(Trigger.PERIODIC, deferredFrame(player, session));
+        if (failure == null) {
+            return ValidationOutcome.VALID;
+        }
 
-                activeSessions.remove(entry.getKey());
+        String reason = failure.reason();
+
+        plugin.getLogger().severe("═══════════════════════════════════════════════");
+        plugin.getLogger().severe("ANTI-DUPE SYSTEM TRIGGERED");
+        plugin.getLogger().severe("═══════════════════════════════════════════════");
+        plugin.getLogger().severe("Player: " + player.getName() + " (UUID: " + player.getUniqueId() + ")");
+        plugin.getLogger().severe("Stage: " + failure.stage());
+        plugin.getLogger().severe("Reason: " + reason);
+        plugin.getLogger().severe("Slot Type: " + session.slot.type);
+        plugin.getLogger().severe("Slot Index: " + session.slot.slotIndex);
+        plugin.getLogger().severe("Session Age: " + (System.currentTimeMillis() - session.openTimestamp) + "ms");
+        plugin.getLogger().severe("Location: " + player.getLocation().getBlockX() + ", " +
+                player.getLocation().getBlockY() + ", " +
+                player.getLocation().getBlockZ());
+        plugin.getLogger().severe("World: " + player.getWorld().getName());
+        plugin.getLogger().severe("═══════════════════════════════════════════════");
+        plugin.getLogger().severe("ACTION: Closing session without save (scheduled)");
+        plugin.getLogger().severe("═══════════════════════════════════════════════");
+
+        if (!discardSession(playerId, session)) {
+            reportRace("race.lost_session", player.getName(), "violation raced a session change");
+            return ValidationOutcome.REMOVED;
+        }
 
-                notifyAdmins(player, reason);
+        recordBlock(player, session.slot, "sweep", reason);
+        notifyAdmins(player, failure.stage(), reason);
 
-                String finalReason = reason;
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    player.closeInventory();
-                    player.sendMessage(Component.text("ANTI-DUPE: Manipulation detected!", NamedTextColor.DARK_RED));
-                    player.sendMessage(Component.text("Reason: " + finalReason, NamedTextColor.RED));
-                    player.sendMessage(Component.text("Changes NOT saved!", NamedTextColor.GOLD));
-                });
-            }
+        String finalReason = reason;
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            player.closeInventory();
+            messenger.send(player, MessageKey.MANIPULATION_DETECTED);
+            messenger.send(player, MessageKey.VIOLATION_REASON, "reason", finalReason);
+            messenger.send(player, MessageKey.NOT_SAVED);
+        });
+
+        return ValidationOutcome.VIOLATION;
+    }
+
+    private void notifyAdmins(Player violator, String category, String reason) {
+        adminNotifier.notify(violator, category, reason);
+    }
+
+    private void recordBlock(Player player, ShulkerSlot slot, String check, String reason) {
+        AntiDupeBlockEvent event = new AntiDupeBlockEvent();
+        if (event.shouldCommit()) {
+            event.player = player.getName();
+            event.slotType = slot != null ? slot.type.name() : null;
+            event.check = check;
+            event.reason = reason;
+            event.commit();
         }
     }
 
-    private void notifyAdmins(Player violator, String reason) {
-        Component adminMessage = Component.text()
-                .append(Component.text("[ANTI-DUPE] ", NamedTextColor.DARK_RED))
-                .append(Component.text(violator.getName(), NamedTextColor.RED))
-                .append(Component.text(" attempted duplication!", NamedTextColor.YELLOW))
-                .append(Component.newline())
-                .append(Component.text("Reason: ", NamedTextColor.GRAY))
-                .append(Component.text(reason, NamedTextColor.WHITE))
-                .build();
+    private static int countItems(ItemStack[] contents) {
+        int count = 0;
+        for (ItemStack item : contents) {
+            if (item != null && !item.getType().isAir()) {
+                count += item.getAmount();
+            }
+        }
+        return count;
+    }
 
-        for (Player online : Bukkit.getOnlinePlayers()) {
-            if (online.hasPermission(Config.PERMISSION_ADMIN)) {
-                online.sendMessage(adminMessage);
+    private static long payloadBytes(ItemStack[] contents) {
+        long bytes = 0;
+        for (ItemStack item : contents) {
+            if (item != null && !item.getType().isAir()) {
+                bytes += item.serializeAsBytes().length;
             }
         }
+        return bytes;
     }
 
     private ItemStack getCurrentShulkerInSlot(Player player, ShulkerSlot slot) {
@@ -497,53 +738,25 @@ public final class VirtualShulkerManager {
     }
 
     private ItemStack[] getContentsFromNBT(ItemStack shulkerBox) {
+        long start = System.nanoTime();
         try {
-            if (!(shulkerBox.getItemMeta() instanceof BlockStateMeta meta)) {
-                return new ItemStack[27];
-            }
-
-            if (!(meta.getBlockState() instanceof ShulkerBox box)) {
-                return new ItemStack[27];
-            }
-
-            ItemStack[] contents = box.getInventory().getContents();
-
-            if (contents != null) {
-                ItemStack[] cloned = new ItemStack[contents.length];
-                for (int i = 0; i < contents.length; i++) {
-                    cloned[i] = contents[i] != null ? contents[i].clone() : null;
-                }
-                return cloned;
-            }
-
-            return new ItemStack[27];
-
+            return ShulkerContents.read(shulkerBox);
         } catch (Exception e) {
             plugin.getLogger().warning("Error reading NBT contents: " + e.getMessage());
             return new ItemStack[27];
+        } finally {
+            metrics.recordTime("contents.read", System.nanoTime() - start);
         }
     }
 
     private void setContentsToNBT(ItemStack shulkerBox, ItemStack[] contents) {
+        long start = System.nanoTime();
         try {
-            if (!(shulkerBox.getItemMeta() instanceof BlockStateMeta blockMeta)) {
-                return;
-            }
-
-            ShulkerBox box = (ShulkerBox) blockMeta.getBlockState();
-
-            ItemStack[] cloned = new ItemStack[contents.length];
-            for (int i = 0; i < contents.length; i++) {
-                cloned[i] = contents[i] != null ? contents[i].clone() : null;
-            }
-
-            box.getInventory().setContents(cloned);
-
-            blockMeta.setBlockState(box);
-            shulkerBox.setItemMeta(blockMeta);
-
+            ShulkerContents.write(shulkerBox, contents);
         } catch (Exception e) {
             plugin.getLogger().warning("Error writing NBT contents: " + e.getMessage());
+        } finally {
+            metrics.recordTime("contents.write", System.nanoTime() - start);
         }
     }
 
@@ -571,63 +784,172 @@ public final class VirtualShulkerManager {
         return null;
     }
 
-    private void updateShulkerInSlot(Player player, ShulkerSlot slot, ItemStack[] contents) {
-        ItemStack shulkerItem = null;
-
-        switch (slot.type) {
-            case MAIN_HAND:
-                shulkerItem = player.getInventory().getItemInMainHand();
-                if (isShulkerBox(shulkerItem)) {
-                    setContentsToNBT(shulkerItem, contents);
-                    player.getInventory().setItemInMainHand(shulkerItem);
-                }
-                break;
-
-            case OFF_HAND:
-                shulkerItem = player.getInventory().getItemInOffHand();
-                if (isShulkerBox(shulkerItem)) {
-                    setContentsToNBT(shulkerItem, contents);
-                    player.getInventory().setItemInOffHand(shulkerItem);
-                }
-                break;
-
-            case INVENTORY:
-                shulkerItem = player.getInventory().getItem(slot.slotIndex);
-                if (isShulkerBox(shulkerItem)) {
-                    setContentsToNBT(shulkerItem, contents);
-                    player.getInventory().setItem(slot.slotIndex, shulkerItem);
-                }
-                break;
-
-            case ENDER_CHEST:
-                shulkerItem = player.getEnderChest().getItem(slot.slotIndex);
-                if (isShulkerBox(shulkerItem)) {
-                    setContentsToNBT(shulkerItem, contents);
-                    player.getEnderChest().setItem(slot.slotIndex, shulkerItem);
-                }
-                break;
-        }
+    private void updateShulkerInSlot(Player player, ShulkerSession session, ItemStack[] contents, ItemStack resolved) {
+        ShulkerSlot slot = session.slot;
+        ItemStack shulkerItem = resolved != null ? resolved : switch (slot.type) {
+            case MAIN_HAND -> player.getInventory().getItemInMainHand();
+            case OFF_HAND -> player.getInventory().getItemInOffHand();
+            case INVENTORY -> player.getInventory().getItem(slot.slotIndex);
+            case ENDER_CHEST -> player.getEnderChest().getItem(slot.slotIndex);
+        };
 
         if (shulkerItem == null || !isShulkerBox(shulkerItem)) {
             plugin.getLogger().warning("CRITICAL: Shulker disappeared from slot during close: " + slot);
             plugin.getLogger().warning("Contents preserved in memory but could not update NBT!");
             plugin.getLogger().warning("This should never happen - please report this bug!");
+            return;
+        }
+
+        if (duplicateSketch.isEnabled()) {
+            recordSketch(player, session.sketchSlots, contents);
+        }
+
+        setContentsToNBT(shulkerItem, contents);
+
+        switch (slot.type) {
+            case MAIN_HAND -> player.getInventory().setItemInMainHand(shulkerItem);
+            case OFF_HAND -> player.getInventory().setItemInOffHand(shulkerItem);
+            case INVENTORY -> player.getInventory().setItem(slot.slotIndex, shulkerItem);
+            case ENDER_CHEST -> player.getEnderChest().setItem(slot.slotIndex, shulkerItem);
+        }
+
+        ItemStack stored = getCurrentShulkerInSlot(player, slot);
+        if (stored != null) {
+            contentsIndex.update(player.getUniqueId(), toIndexedSlot(player, slot), stored, contents);
         }
     }
 
+    private void recordSketch(Player player, DuplicateSketch.Slots slots, ItemStack[] after) {
+        for (DuplicateSketch.Flag flag : duplicateSketch.recordCommit(slots, after)) {
+            String reason = "Item seen in ~" + flag.estimate() + " shulker slots server-wide ("
+                    + flag.material() + ", fingerprint " + Long.toHexString(flag.fingerprint()) + ")";
+
+            plugin.getLogger().warning("POSSIBLE DUPLICATE: " + player.getName() + " stored " + flag.material()
+                    + " seen in ~" + flag.estimate() + " shulker slots (fingerprint " + Long.toHexString(flag.fingerprint()) + ")");
+            notifyAdmins(player, "sketch", reason);
+        }
+    }
+
+    private ContentsIndex.IndexedSlot toIndexedSlot(Player player, ShulkerSlot slot) {
+        return switch (slot.type) {
+            case MAIN_HAND -> new ContentsIndex.IndexedSlot(false, player.getInventory().getHeldItemSlot());
+            case OFF_HAND -> new ContentsIndex.IndexedSlot(false, 40);
+            case INVENTORY -> new ContentsIndex.IndexedSlot(false, slot.slotIndex);
+            case ENDER_CHEST -> new ContentsIndex.IndexedSlot(true, slot.slotIndex);
+        };
+    }
+
     private boolean isSameShulker(ItemStack item1, ItemStack item2) {
-        if (item1 == null || item2 == null) return false;
-        if (!isShulkerBox(item1) || !isShulkerBox(item2)) return false;
-        if (item1.getType() != item2.getType()) return false;
+        ShulkerIdentity identity = ShulkerIdentity.of(item1);
+        return identity != null && identity.equals(ShulkerIdentity.of(item2));
+    }
+
+    public void bindSessionListener(Listener listener) {
+        this.sessionListener = listener;
+        updateSessionListener();
+    }
+
+    private SessionRegistry.OpenResult addSession(UUID playerId, ShulkerSession session) {
+        SessionRegistry.OpenResult result = sessions.open(playerId, session);
+        if (result == SessionRegistry.OpenResult.OPENED) {
+            tickScheduler.track(playerId);
+            updateSessionListener();
+        }
+        return result;
+    }
+
+    private ShulkerSession removeSession(UUID playerId) {
+        ShulkerSession session = sessions.remove(playerId);
+        if (session != null) {
+            onSessionRemoved(playerId, true);
+        }
+        return session;
+    }
+
+    private ShulkerSession deferSession(UUID playerId) {
+        ShulkerSession session = sessions.removeDeferred(playerId);
+        if (session != null) {
+            onSessionRemoved(playerId, false);
+        }
+        return session;
+    }
+
+    private boolean discardSession(UUID playerId, ShulkerSession session) {
+        if (!sessions.discard(playerId, session)) {
+            return false;
+        }
+
+        onSessionRemoved(playerId, true);
+        tickScheduler.cancelAutoSave(playerId);
+        return true;
+    }
+
+    private void onSessionRemoved(UUID playerId, boolean releaseLease) {
+        tickScheduler.untrack(playerId);
+        if (releaseLease) {
+            leaseManager.release(playerId);
+        }
+        journal.close(playerId);
+        traceRecorder.close(playerId);
+        updateSessionListener();
+    }
+
+    private void reportRace(String counter, String playerName, String detail) {
+        metrics.increment(counter);
+        plugin.getLogger().warning("Session race prevented (" + counter + ") for " + playerName + ": " + detail);
+    }
+
+    private void updateSessionListener() {
+        if (sessionListener == null) {
+            return;
+        }
+
+        if (!Bukkit.isPrimaryThread()) {
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, this::updateSessionListener);
+            }
+            return;
+        }
 
-        if (!(item1.getItemMeta() instanceof BlockStateMeta meta1)) return false;
-        if (!(item2.getItemMeta() instanceof BlockStateMeta meta2)) return false;
+        boolean needed = !activeSessions.isEmpty() && plugin.isEnabled();
 
-        boolean sameDisplayName = Objects.equals(meta1.displayName(), meta2.displayName());
-        boolean sameLore = Objects.equals(meta1.lore(), meta2.lore());
-        boolean sameEnchants = Objects.equals(meta1.getEnchants(), meta2.getEnchants());
+        if (needed) {
+            cancelSessionListenerIdleTask();
+            if (!sessionListenerRegistered) {
+                plugin.getServer().getPluginManager().registerEvents(sessionListener, plugin);
+                sessionListenerRegistered = true;
+                plugin.getLogger().fine("Session listener registered");
+            }
+        } else if (sessionListenerRegistered) {
+            if (!plugin.isEnabled()) {
+                cancelSessionListenerIdleTask();
+                unregisterSessionListener();
+            } else if (sessionListenerIdleTask == null) {
+                sessionListenerIdleTask = Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                    sessionListenerIdleTask = null;
+                    if (activeSessions.isEmpty()) {
+                        unregisterSessionListener();
+                    }
+                }, SESSION_LISTENER_IDLE_TICKS);
+            }
+        }
+    }
 
-        return sameDisplayName && sameLore && sameEnchants;
+    private void cancelSessionListenerIdleTask() {
+        if (sessionListenerIdleTask != null) {
+            sessionListenerIdleTask.cancel();
+            sessionListenerIdleTask = null;
+        }
+    }
+
+    private void unregisterSessionListener() {
+        if (!sessionListenerRegistered) {
+            return;
+        }
+
+        HandlerList.unregisterAll(sessionListener);
+        sessionListenerRegistered = false;
+        plugin.getLogger().fine("Session listener unregistered");
     }
 
     public boolean hasOpenShulker(Player player) {
@@ -639,6 +961,10 @@ public final class VirtualShulkerManager {
         return session != null && session.inventory.equals(inventory);
     }
 
+    public boolean isClosing(Player player) {
+        return sessions.isClosing(player.getUniqueId());
+    }
+
     public boolean isLoading(Player player) {
         return loadingPlayers.contains(player.getUniqueId());
     }
@@ -652,102 +978,358 @@ public final class VirtualShulkerManager {
 
         loadingPlayers.remove(playerId);
         lastOpenTime.remove(playerId);
+        messenger.clear(playerId);
         transactionTracker.clearPlayer(playerId);
         inventorySnapshot.clearSnapshot(playerId);
 
-        Integer taskId = autoSaveScheduled.remove(playerId);
-        if (taskId != null) {
-            Bukkit.getScheduler().cancelTask(taskId);
-        }
+        tickScheduler.cancelAutoSave(playerId);
 
-        ShulkerSession session = activeSessions.remove(playerId);
+        ShulkerSession session = removeSession(playerId);
         if (session != null) {
+            session.lifecycle.discard();
             plugin.getLogger().info("Force cleaned up session for: " + player.getName());
         }
     }
 
     public boolean isShulkerBox(ItemStack item) {
-        if (item == null) return false;
-        return isShulkerBox(item.getType());
+        return ItemAccounting.isShulkerBox(item);
     }
 
     public boolean isShulkerBox(Material material) {
-        return material == Material.SHULKER_BOX ||
-                material == Material.WHITE_SHULKER_BOX ||
-                material == Material.ORANGE_SHULKER_BOX ||
-                material == Material.MAGENTA_SHULKER_BOX ||
-                material == Material.LIGHT_BLUE_SHULKER_BOX ||
-                material == Material.YELLOW_SHULKER_BOX ||
-                material == Material.LIME_SHULKER_BOX ||
-                material == Material.PINK_SHULKER_BOX ||
-                material == Material.GRAY_SHULKER_BOX ||
-                material == Material.LIGHT_GRAY_SHULKER_BOX ||
-                material == Material.CYAN_SHULKER_BOX ||
-                material == Material.PURPLE_SHULKER_BOX ||
-                material == Material.BLUE_SHULKER_BOX ||
-                material == Material.BROWN_SHULKER_BOX ||
-                material == Material.GREEN_SHULKER_BOX ||
-                material == Material.RED_SHULKER_BOX ||
-                material == Material.BLACK_SHULKER_BOX;
+        return ItemAccounting.isShulkerBox(material);
     }
 
     private Inventory createInventory(ItemStack[] contents) {
-        Component title = Config.getShulkerTitle();
-        Inventory inventory = Bukkit.createInventory(null, Config.getShulkerSize(), title);
+        Inventory inventory = inventoryPool.acquire(Config.get());
         inventory.setContents(contents);
         return inventory;
     }
 
-    public void registerPlacedShulker(Location location) {
-        placedShulkerLocations.add(location.getBlock().getLocation());
+    public void registerPlacedShulker(Block block, Player owner) {
+        placedShulkers.register(block, owner.getUniqueId());
+    }
+
+    public UUID unregisterPlacedShulker(Block block) {
+        return placedShulkers.unregister(block);
     }
 
-    public void unregisterPlacedShulker(Location location) {
-        placedShulkerLocations.remove(location.getBlock().getLocation());
+    public boolean isPlacedVirtualShulker(Block block) {
+        return placedShulkers.contains(block);
     }
 
     public boolean isPlacedVirtualShulker(Location location) {
-        return placedShulkerLocations.contains(location.getBlock().getLocation());
+        return placedShulkers.contains(location);
     }
 
-    public void shutdown() {
-        plugin.getLogger().info("Shutting down VirtualShulkerManager...");
+    public boolean hasPlacedShulkers(World world) {
+        return placedShulkers.hasAny(world);
+    }
 
-        int closedSessions = 0;
-        for (Map.Entry<UUID, ShulkerSession> entry : new HashMap<>(activeSessions).entrySet()) {
-            Player player = Bukkit.getPlayer(entry.getKey());
-            if (player != null) {
-                closeShulker(player, true, true);
-                closedSessions++;
+    public int sweepLeaks() {
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+
+        Set<UUID> online = new HashSet<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            online.add(player.getUniqueId());
+        }
+
+        Set<UUID> keep = new HashSet<>(activeSessions.keySet());
+        keep.addAll(loadingPlayers);
+
+        int removed = 0;
+
+        for (Map.Entry<UUID, Long> entry : lastOpenTime.entrySet()) {
+            if (now - entry.getValue() > OPEN_COOLDOWN_MS && lastOpenTime.remove(entry.getKey(), entry.getValue())) {
+                removed++;
             }
         }
 
-        if (closedSessions > 0) {
-            plugin.getLogger().info("Closed " + closedSessions + " active sessions");
+        for (UUID playerId : loadingPlayers) {
+            if (!online.contains(playerId) && loadingPlayers.remove(playerId)) {
+                removed++;
+            }
         }
 
-        for (Integer taskId : autoSaveScheduled.values()) {
-            Bukkit.getScheduler().cancelTask(taskId);
+        removed += tickScheduler.sweep(activeSessions.keySet());
+
+        long idleMillis = Config.get().sweepIdleMillis();
+        removed += transactionTracker.sweep(keep, now, idleMillis);
+        removed += inventorySnapshot.sweep(keep, online, now, idleMillis);
+        removed += messenger.sweep(online);
+        removed += contentsIndex.sweep(online);
+        removed += placedShulkers.sweep(block -> isShulkerBox(block.getType()));
+
+        metrics.add("sweeper.removed", removed);
+        metrics.recordTime("sweeper.run", System.nanoTime() - start);
+
+        if (removed > 0) {
+            plugin.getLogger().fine("Leak sweep removed " + removed + " stale entries");
         }
+        return removed;
+    }
 
-        activeSessions.clear();
+    public List<MapFootprint> footprint() {
+        long sessionBytes = 0;
+        for (ShulkerSession session : activeSessions.values()) {
+            sessionBytes += MapFootprint.ENTRY_BYTES + 48L + MapFootprint.ITEM_BYTES
+                    + MapFootprint.array(session.inventory.getContents());
+        }
+
+        List<MapFootprint> footprint = new ArrayList<>();
+        footprint.add(new MapFootprint("sessions", activeSessions.size(), sessionBytes));
+        footprint.add(new MapFootprint("loading", loadingPlayers.size(), loadingPlayers.size() * MapFootprint.ENTRY_BYTES));
+        footprint.add(new MapFootprint("open cooldowns", lastOpenTime.size(),
+                lastOpenTime.size() * (MapFootprint.ENTRY_BYTES + MapFootprint.BOXED_BYTES)));
+        footprint.add(new MapFootprint("unrecovered", unrecovered.size(),
+                unrecovered.size() * (MapFootprint.ENTRY_BYTES + 64L)));
+        footprint.addAll(tickScheduler.footprint());
+        footprint.addAll(inventorySnapshot.footprint());
+        footprint.addAll(transactionTracker.footprint());
+        footprint.add(placedShulkers.footprint());
+        footprint.add(messenger.footprint());
+        footprint.add(contentsIndex.footprint());
+        return footprint;
+    }
+
+    public void shutdown() {
+        plugin.getLogger().info("Shutting down VirtualShulkerManager...");
+
+        closeRequests.clear();
+
+        int closedSessions = flushSessionsOnShutdown();
+
+        if (closedSessions > 0) {
+            plugin.getLogger().info("Closed " + closedSessions + " active sessions");
+        }
+
+        sessions.clear();
+        updateSessionListener();
+        inventoryPool.clear();
         loadingPlayers.clear();
-        placedShulkerLocations.clear();
+        placedShulkers.clear();
         lastOpenTime.clear();
-        autoSaveScheduled.clear();
+        tickScheduler.clear();
+        messenger.clearAll();
+        contentsIndex.clear();
+        adminNotifier.clear();
+        leaseManager.shutdown();
+        journal.shutdown();
+        duplicateSketch.shutdown();
+        traceRecorder.shutdown();
 
         plugin.getLogger().info("VirtualShulkerManager shutdown complete");
     }
 
+    private int flushDeferredSaves() {
+        int flushed = 0;
+        List<RecoveryStore.RecoveryEntry> recovery = new ArrayList<>();
+
+        for (Map.Entry<UUID, ShulkerSession> entry : sessions.closingSnapshot().entrySet()) {
+            UUID playerId = entry.getKey();
+            ShulkerSession session = entry.getValue();
+            if (!sessions.finishDeferred(playerId, session) || session.lifecycle.state() != SessionLifecycle.State.CLOSING) {
+                continue;
+            }
+
+            Player player = Bukkit.getPlayer(playerId);
+            if (player == null) {
+                recovery.add(new RecoveryStore.RecoveryEntry(playerId, null, session.slot.toString(),
+                        session.inventory.getContents(), "Player offline before deferred save"));
+                leaseManager.release(playerId);
+                continue;
+            }
+
+            performSave(player, session);
+            leaseManager.release(playerId);
+            flushed++;
+        }
+
+        if (!recovery.isEmpty()) {
+            File file = recoveryStore.write("deferred", recovery);
+            plugin.getLogger().warning("Wrote " + recovery.size() + " deferred saves to recovery file: "
+                    + (file != null ? file.getName() : "FAILED"));
+        }
+
+        return flushed;
+    }
+
+    private int flushSessionsOnShutdown() {
+        int deferred = flushDeferredSaves();
+
+        if (activeSessions.isEmpty()) {
+            return deferred;
+        }
+
+        long start = System.nanoTime();
+        List<PendingSave> pending = new ArrayList<>(activeSessions.size());
+        List<RecoveryStore.RecoveryEntry> recovery = new ArrayList<>();
+
+        for (Map.Entry<UUID, ShulkerSession> entry : new HashMap<>(activeSessions).entrySet()) {
+            UUID playerId = entry.getKey();
+            ShulkerSession session = removeSession(playerId);
+            if (session == null) {
+                continue;
+            }
+
+            tickScheduler.cancelAutoSave(playerId);
+
+            if (!session.lifecycle.beginClose()) {
+                reportRace("race.double_close", playerId.toString(), "session closed twice during shutdown");
+                continue;
+            }
+
+            Player player = Bukkit.getPlayer(playerId);
+
+            if (player == null) {
+                recovery.add(new RecoveryStore.RecoveryEntry(playerId, null, session.slot.toString(),
+                        session.inventory.getContents(), "Player offline during shutdown"));
+                continue;
+            }
+
+            transactionTracker.recordTransaction(player, TransactionTracker.TransactionType.CLOSE, -1, null);
+
+            pending.add(new PendingSave(player, session, captureFrame(player, session).detach(inventorySnapshot)));
+        }
+
+        List<Future<ValidationResult>> results = validateInParallel(pending, Config.get().shutdownDeadlineMillis());
+
+        int committed = 0;
+        for (int i = 0; i < pending.size(); i++) {
+            PendingSave save = pending.get(i);
+            ValidationResult result = i < results.size() ? resultOf(results.get(i)) : null;
+
+            if (result == null) {
+                recovery.add(new RecoveryStore.RecoveryEntry(save.player.getUniqueId(), save.player.getName(),
+                        save.session.slot.toString(), save.frame.shulkerContents(), "Validation deadline exceeded"));
+                continue;
+            }
+
+            if (!result.isValid()) {
+                plugin.getLogger().severe("═══════════════════════════════════════════════");
+                plugin.getLogger().severe("ANTI-DUPE: Save blocked during shutdown");
+                plugin.getLogger().severe("Player: " + save.player.getName());
+                plugin.getLogger().severe("Reason: " + result.getReason());
+                plugin.getLogger().severe("ACTION: Blocking save");
+                plugin.getLogger().severe("═══════════════════════════════════════════════");
+
+                recordBlock(save.player, save.session.slot, "shutdown", result.getReason());
+                notifyAdmins(save.player, "shutdown", result.getReason());
+                continue;
+            }
+
+            if (!save.session.lifecycle.beginFinalSave()) {
+                reportRace("race.double_save", save.player.getName(), "shutdown save on a session already saved");
+                continue;
+            }
+
+            updateShulkerInSlot(save.player, save.session, save.frame.shulkerContents(), save.frame.currentShulker());
+            committed++;
+        }
+
+        if (!recovery.isEmpty()) {
+            File file = recoveryStore.write("shutdown", recovery);
+            plugin.getLogger().warning("Wrote " + recovery.size() + " unsaved sessions to recovery file: "
+                    + (file != null ? file.getName() : "FAILED"));
+        }
+
+        metrics.recordTime("shutdown.flush", System.nanoTime() - start);
+        plugin.getLogger().info("Shutdown flush: " + committed + "/" + pending.size() + " saved, "
+                + recovery.size() + " recovered in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+
+        return deferred + pending.size();
+    }
+
+    private List<Future<ValidationResult>> validateInParallel(List<PendingSave> pending, long deadlineMillis) {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+
+        int threads = Math.min(pending.size(), Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "VirtualShulker-ShutdownValidator");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Callable<ValidationResult>> tasks = new ArrayList<>(pending.size());
+        for (PendingSave save : pending) {
+            tasks.add(() -> verifyPendingSave(save));
+        }
+
+        try {
+            return executor.invokeAll(tasks, deadlineMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ValidationResult resultOf(Future<ValidationResult> future) {
+        if (future.isCancelled()) {
+            return null;
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return ValidationResult.invalid("Validation error: " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private ValidationResult verifyPendingSave(PendingSave save) {
+        StageFailure failure = validationPipeline.run(Trigger.COMMIT, save.frame);
+        return failure == null ? ValidationResult.valid() : ValidationResult.invalid(failure.adminReason());
+    }
+
+    private SessionFrame captureFrame(Player player, ShulkerSession session) {
+        return SessionFrame.capture(
+                player,
+                getCurrentShulkerInSlot(player, session.slot),
+                session.originalShulker,
+                session.inventory.getContents(),
+                transactionTracker.getCheckpoint(player)
+        );
+    }
+
+    private SessionFrame deferredFrame(Player player, ShulkerSession session) {
+        return SessionFrame.deferred(
+                player,
+                getCurrentShulkerInSlot(player, session.slot),
+                session.originalShulker,
+                () -> session.inventory.getContents(),
+                () -> transactionTracker.getCheckpoint(player)
+        );
+    }
+
+    private record PendingSave(
+            Player player,
+            ShulkerSession session,
+            SessionFrame frame
+    ) {}
+
     private record ShulkerSession(
             Inventory inventory,
             ShulkerSlot slot,
             ItemStack originalShulker,
-            long openTimestamp
-    ) {}
+            long openTimestamp,
+            SessionLifecycle lifecycle,
+            DuplicateSketch.Slots sketchSlots
+    ) implements SessionRegistry.Tracked {}
 
     private record ShulkerSlot(SlotType type, int slotIndex) {}
 
+    public enum ValidationOutcome {
+        VALID,
+        REMOVED,
+        VIOLATION
+    }
+
     private enum SlotType {
         MAIN_HAND,
         OFF_HAND,
@@ -755,6 +1337,50 @@ public final class VirtualShulkerManager {
         ENDER_CHEST
     }
 
+    public DuplicateSketch getDuplicateSketch() {
+        return duplicateSketch;
+    }
+
+    public ValidationPipeline getValidationPipeline() {
+        return validationPipeline;
+    }
+
+    public TraceRecorder getTraceRecorder() {
+        return traceRecorder;
+    }
+
+    public TickBudgetScheduler getTickScheduler() {
+        return tickScheduler;
+    }
+
+    public ContentsIndex getContentsIndex() {
+        return contentsIndex;
+    }
+
+    public SessionJournal getJournal() {
+        return journal;
+    }
+
+    public LeaseManager getLeaseManager() {
+        return leaseManager;
+    }
+
+    public AdminNotifier getAdminNotifier() {
+        return adminNotifier;
+    }
+
+    public Messenger getMessenger() {
+        return messenger;
+    }
+
+    public InventoryPool getInventoryPool() {
+        return inventoryPool;
+    }
+
+    public PluginMetrics getMetrics() {
+        return metrics;
+    }
+
     public VirtualShulkerPlugin getPlugin() {
         return plugin;
     }
@@ -0,0 +1,24 @@
+package com.github.mathsanalysis.vshulker.metrics;
+
+import org.bukkit.inventory.ItemStack;
+
+public record MapFootprint(String name, int entries, long estimatedBytes) {
+
+    public static final long ENTRY_BYTES = 80;
+    public static final long BOXED_BYTES = 16;
+    public static final long ITEM_BYTES = 120;
+
+    public static long array(ItemStack[] items) {
+        if (items == null) {
+            return 0;
+        }
+
+        long bytes = 16L + 4L * items.length;
+        for (ItemStack item : items) {
+            if (item != null) {
+                bytes += ITEM_BYTES;
+            }
+        }
+        return bytes;
+    }
+}
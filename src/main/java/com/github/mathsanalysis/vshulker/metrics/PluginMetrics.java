@@ -0,0 +1,79 @@
+package com.github.mathsanalysis.vshulker.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class PluginMetrics {
+
+    private final Map<String, LongAdder> counters;
+    private final Map<String, Timer> timers;
+
+    public PluginMetrics() {
+        this.counters = new ConcurrentHashMap<>();
+        this.timers = new ConcurrentHashMap<>();
+    }
+
+    public void increment(String name) {
+        counters.computeIfAbsent(name, k -> new LongAdder()).increment();
+    }
+
+    public void add(String name, long delta) {
+        counters.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+    }
+
+    public long get(String name) {
+        LongAdder adder = counters.get(name);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    public void recordTime(String name, long nanos) {
+        timers.computeIfAbsent(name, k -> new Timer()).record(nanos);
+    }
+
+    public Map<String, Long> counters() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((name, adder) -> snapshot.put(name, adder.sum()));
+        return snapshot;
+    }
+
+    public Map<String, TimerSnapshot> timers() {
+        Map<String, TimerSnapshot> snapshot = new TreeMap<>();
+        timers.forEach((name, timer) -> snapshot.put(name, timer.snapshot()));
+        return snapshot;
+    }
+
+    public void reset() {
+        counters.clear();
+        timers.clear();
+    }
+
+    private static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        TimerSnapshot snapshot() {
+            return new TimerSnapshot(count.sum(), totalNanos.sum(), maxNanos.get());
+        }
+    }
+
+    public record TimerSnapshot(long count, long totalNanos, long maxNanos) {
+
+        public double averageMicros() {
+            return count == 0 ? 0.0 : totalNanos / (double) count / 1000.0;
+        }
+
+        public double maxMicros() {
+            return maxNanos / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.mathsanalysis.vshulker.scan;
+
+import com.github.mathsanalysis.vshulker.security.NBTValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public final class ItemRules {
+
+    private ItemRules() {
+    }
+
+    public static boolean isShulkerBox(String id) {
+        return id != null && id.endsWith("shulker_box");
+    }
+
+    public static String id(Map<String, Object> item) {
+        return item.get("id") instanceof String id ? id : null;
+    }
+
+    public static List<String> check(Map<String, Object> item, long encodedBytes) {
+        List<String> violations = new ArrayList<>(0);
+
+        if (encodedBytes > NBTValidator.MAX_NBT_SIZE) {
+            violations.add("Item data exceeds " + NBTValidator.MAX_NBT_SIZE + " bytes (" + encodedBytes + ")");
+        }
+
+        checkItem(item, 0, violations);
+        return violations;
+    }
+
+    private static void checkItem(Map<String, Object> item, int depth, List<String> violations) {
+        Object name = component(item, "minecraft:custom_name", "display", "Name");
+        if (name != null && textLength(name) > NBTValidator.MAX_DISPLAY_NAME_LENGTH) {
+            violations.add(prefix(depth) + "Display name exceeds maximum length");
+        }
+
+        if (component(item, "minecraft:lore", "display", "Lore") instanceof List<?> lore) {
+            if (lore.size() > NBTValidator.MAX_LORE_LINES) {
+                violations.add(prefix(depth) + "Lore exceeds maximum lines");
+            }
+            for (Object line : lore) {
+                if (textLength(line) > NBTValidator.MAX_LORE_LINE_LENGTH) {
+                    violations.add(prefix(depth) + "Lore line exceeds maximum length");
+                    break;
+                }
+            }
+        }
+
+        if (!isShulkerBox(id(item))) {
+            return;
+        }
+
+        if (depth > NBTValidator.MAX_NESTING_DEPTH) {
+            violations.add("Shulker nesting depth exceeds limit");
+            return;
+        }
+
+        for (Map<String, Object> contained : containerItems(item)) {
+            if (isShulkerBox(id(contained))) {
+                violations.add(prefix(depth) + "Nested shulker boxes are not allowed (" + id(contained) + ")");
+            }
+            checkItem(contained, depth + 1, violations);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<Map<String, Object>> containerItems(Map<String, Object> item) {
+        List<Map<String, Object>> items = new ArrayList<>();
+
+        if (item.get("components") instanceof Map<?, ?> components
+                && components.get("minecraft:container") instanceof List<?> container) {
+            for (Object entry : container) {
+                if (entry instanceof Map<?, ?> slot && slot.get("item") instanceof Map<?, ?> contained) {
+                    items.add((Map<String, Object>) contained);
+                }
+            }
+            return items;
+        }
+
+        if (item.get("tag") instanceof Map<?, ?> tag
+                && tag.get("BlockEntityTag") instanceof Map<?, ?> blockEntity
+                && blockEntity.get("Items") instanceof List<?> legacy) {
+            for (Object entry : legacy) {
+                if (entry instanceof Map<?, ?> contained) {
+                    items.add((Map<String, Object>) contained);
+                }
+            }
+        }
+
+        return items;
+    }
+
+    private static Object component(Map<String, Object> item, String component, String legacyCompound, String legacyKey) {
+        if (item.get("components") instanceof Map<?, ?> components && components.containsKey(component)) {
+            return components.get(component);
+        }
+
+        if (item.get("tag") instanceof Map<?, ?> tag && tag.get(legacyCompound) instanceof Map<?, ?> display) {
+            return display.get(legacyKey);
+        }
+
+        return null;
+    }
+
+    private static int textLength(Object text) {
+        if (text instanceof String value) {
+            return value.length();
+        }
+
+        int length = 0;
+        if (text instanceof Map<?, ?> compound) {
+            for (Object value : compound.values()) {
+                length += textLength(value);
+            }
+        } else if (text instanceof List<?> list) {
+            for (Object value : list) {
+                length += textLength(value);
+            }
+        }
+        return length;
+    }
+
+    private static String prefix(int depth) {
+        return depth == 0 ? "" : "Contained item: ";
+    }
+}
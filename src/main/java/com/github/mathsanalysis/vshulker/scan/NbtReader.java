@@ -0,0 +1,211 @@
+package com.github.mathsanalysis.vshulker.scan;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class NbtReader {
+
+    public static final byte TAG_END = 0;
+    public static final byte TAG_BYTE = 1;
+    public static final byte TAG_SHORT = 2;
+    public static final byte TAG_INT = 3;
+    public static final byte TAG_LONG = 4;
+    public static final byte TAG_FLOAT = 5;
+    public static final byte TAG_DOUBLE = 6;
+    public static final byte TAG_BYTE_ARRAY = 7;
+    public static final byte TAG_STRING = 8;
+    public static final byte TAG_LIST = 9;
+    public static final byte TAG_COMPOUND = 10;
+    public static final byte TAG_INT_ARRAY = 11;
+    public static final byte TAG_LONG_ARRAY = 12;
+
+    private static final int MAX_DEPTH = 512;
+
+    private final CountingStream counter;
+    private final DataInputStream in;
+
+    public NbtReader(InputStream source) {
+        this.counter = new CountingStream(source);
+        this.in = new DataInputStream(counter);
+    }
+
+    public long position() {
+        return counter.count;
+    }
+
+    public byte readType() throws IOException {
+        return in.readByte();
+    }
+
+    public String readName() throws IOException {
+        return in.readUTF();
+    }
+
+    public int readInt() throws IOException {
+        return in.readInt();
+    }
+
+    public Object readPayload(byte type) throws IOException {
+        return readPayload(type, 0);
+    }
+
+    public Map<String, Object> readCompound() throws IOException {
+        return readCompound(0);
+    }
+
+    public void skipPayload(byte type) throws IOException {
+        skipPayload(type, 0);
+    }
+
+    private Object readPayload(byte type, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("NBT nesting too deep");
+        }
+
+        return switch (type) {
+            case TAG_BYTE -> in.readByte();
+            case TAG_SHORT -> in.readShort();
+            case TAG_INT -> in.readInt();
+            case TAG_LONG -> in.readLong();
+            case TAG_FLOAT -> in.readFloat();
+            case TAG_DOUBLE -> in.readDouble();
+            case TAG_BYTE_ARRAY -> {
+                byte[] bytes = new byte[checkLength(in.readInt())];
+                in.readFully(bytes);
+                yield bytes;
+            }
+            case TAG_STRING -> in.readUTF();
+            case TAG_LIST -> {
+                byte elementType = in.readByte();
+                int length = checkLength(in.readInt());
+                List<Object> list = new ArrayList<>(Math.min(length, 1024));
+                for (int i = 0; i < length; i++) {
+                    list.add(readPayload(elementType, depth + 1));
+                }
+                yield list;
+            }
+            case TAG_COMPOUND -> readCompound(depth + 1);
+            case TAG_INT_ARRAY -> {
+                int[] values = new int[checkLength(in.readInt())];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = in.readInt();
+                }
+                yield values;
+            }
+            case TAG_LONG_ARRAY -> {
+                long[] values = new long[checkLength(in.readInt())];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = in.readLong();
+                }
+                yield values;
+            }
+            default -> throw new IOException("Unknown NBT tag type " + type);
+        };
+    }
+
+    private Map<String, Object> readCompound(int depth) throws IOException {
+        Map<String, Object> compound = new HashMap<>();
+        while (true) {
+            byte type = in.readByte();
+            if (type == TAG_END) {
+                return compound;
+            }
+            compound.put(in.readUTF(), readPayload(type, depth));
+        }
+    }
+
+    private void skipPayload(byte type, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("NBT nesting too deep");
+        }
+
+        switch (type) {
+            case TAG_BYTE -> skip(1);
+            case TAG_SHORT -> skip(2);
+            case TAG_INT, TAG_FLOAT -> skip(4);
+            case TAG_LONG, TAG_DOUBLE -> skip(8);
+            case TAG_BYTE_ARRAY -> skip(checkLength(in.readInt()));
+            case TAG_STRING -> skip(in.readUnsignedShort());
+            case TAG_LIST -> {
+                byte elementType = in.readByte();
+                int length = checkLength(in.readInt());
+                for (int i = 0; i < length; i++) {
+                    skipPayload(elementType, depth + 1);
+                }
+            }
+            case TAG_COMPOUND -> {
+                while (true) {
+                    byte entryType = in.readByte();
+                    if (entryType == TAG_END) {
+                        break;
+                    }
+                    skip(in.readUnsignedShort());
+                    skipPayload(entryType, depth + 1);
+                }
+            }
+            case TAG_INT_ARRAY -> skip(4L * checkLength(in.readInt()));
+            case TAG_LONG_ARRAY -> skip(8L * checkLength(in.readInt()));
+            default -> throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    private void skip(long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+
+    private static int checkLength(int length) throws IOException {
+        if (length < 0 || length > 16 * 1024 * 1024) {
+            throw new IOException("Invalid NBT length " + length);
+        }
+        return length;
+    }
+
+    private static final class CountingStream extends FilterInputStream {
+        private long count;
+
+        private CountingStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
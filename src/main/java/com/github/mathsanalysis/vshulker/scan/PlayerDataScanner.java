@@ -0,0 +1,229 @@
+package com.github.mathsanalysis.vshulker.scan;
+
+import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+public final class PlayerDataScanner {
+
+    private static final long PROGRESS_INTERVAL_TICKS = 40L;
+
+    private final VirtualShulkerPlugin plugin;
+    private final PluginMetrics metrics;
+    private final AtomicBoolean running;
+
+    private volatile boolean cancelled;
+    private volatile ForkJoinPool pool;
+
+    public PlayerDataScanner(VirtualShulkerPlugin plugin, PluginMetrics metrics) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.running = new AtomicBoolean();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public void cancel() {
+        cancelled = true;
+        ForkJoinPool active = pool;
+        if (active != null) {
+            active.shutdownNow();
+        }
+    }
+
+    public boolean start(CommandSender sender) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        cancelled = false;
+
+        File folder = new File(Bukkit.getWorlds().get(0).getWorldFolder(), "playerdata");
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                run(sender, folder);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    private void run(CommandSender sender, File folder) {
+        if (cancelled) {
+            return;
+        }
+
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".dat"));
+        if (files == null || files.length == 0) {
+            reply(sender, Component.text("No playerdata files found in " + folder.getPath(), NamedTextColor.YELLOW));
+            return;
+        }
+
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ScanProgress progress = new ScanProgress("Playerdata", files.length);
+
+        reply(sender, Component.text("Scanning " + files.length + " playerdata files on " + threads + " threads...", NamedTextColor.YELLOW));
+        BukkitTask reporter = Bukkit.getScheduler().runTaskTimer(plugin,
+                () -> sender.sendMessage(Component.text(progress.describe("items"), NamedTextColor.GRAY)),
+                PROGRESS_INTERVAL_TICKS, PROGRESS_INTERVAL_TICKS);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        this.pool = pool;
+        List<ScanFinding> findings;
+        try {
+            findings = pool.submit(() -> Arrays.stream(files)
+                    .parallel()
+                    .flatMap(file -> scanFile(file, progress).stream())
+                    .toList()).get();
+        } catch (InterruptedException | CancellationException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            reply(sender, Component.text("Playerdata scan interrupted", NamedTextColor.RED));
+            return;
+        } catch (ExecutionException e) {
+            plugin.getLogger().severe("Playerdata scan failed: " + e.getCause());
+            reply(sender, Component.text("Playerdata scan failed: " + e.getCause().getMessage(), NamedTextColor.RED));
+            return;
+        } finally {
+            this.pool = null;
+            pool.shutdown();
+            reporter.cancel();
+        }
+
+        if (cancelled) {
+            plugin.getLogger().warning("Playerdata scan cancelled before completion, no report written");
+            return;
+        }
+
+        metrics.add("scan.playerdata.files", progress.getProcessed());
+        metrics.add("scan.playerdata.findings", findings.size());
+
+        List<String> summary = List.of(
+                "Folder: " + folder.getPath(),
+                progress.describe("items"),
+                String.format("Elapsed: %.2fs on %d threads", progress.elapsedSeconds(), threads),
+                "Columns: source, owner, container, slot, item, reason"
+        );
+        File report = ScanReport.write(plugin, "playerdata", summary, findings);
+
+        if (!findings.isEmpty()) {
+            plugin.getLogger().warning("Playerdata scan found " + findings.size() + " suspicious items"
+                    + (report != null ? " - see " + report.getName() : ""));
+        }
+
+        reply(sender, Component.text(String.format("✓ Playerdata scan finished in %.2fs: %d files, %d findings, %d unreadable",
+                progress.elapsedSeconds(), progress.getProcessed(), findings.size(), progress.getFailed()),
+                findings.isEmpty() ? NamedTextColor.GREEN : NamedTextColor.RED));
+        if (report != null) {
+            reply(sender, Component.text("  Report: " + report.getPath(), NamedTextColor.YELLOW));
+        }
+    }
+
+    private List<ScanFinding> scanFile(File file, ScanProgress progress) {
+        if (cancelled) {
+            return List.of();
+        }
+
+        String fileName = file.getName();
+        String owner = fileName.substring(0, fileName.length() - ".dat".length());
+        List<ScanFinding> findings = new ArrayList<>(0);
+
+        try (InputStream in = new BufferedInputStream(new GZIPInputStream(new FileInputStream(file), 8192))) {
+            NbtReader reader = new NbtReader(in);
+            if (reader.readType() != NbtReader.TAG_COMPOUND) {
+                throw new IOException("Root tag is not a compound");
+            }
+            reader.readName();
+
+            String lastKnownName = null;
+            while (true) {
+                byte type = reader.readType();
+                if (type == NbtReader.TAG_END) {
+                    break;
+                }
+
+                String name = reader.readName();
+                if (type == NbtReader.TAG_LIST && (name.equals("Inventory") || name.equals("EnderItems"))) {
+                    progress.addUnits(scanItems(reader, fileName, owner, name, findings));
+                } else if (type == NbtReader.TAG_COMPOUND && name.equals("bukkit")) {
+                    if (reader.readCompound().get("lastKnownName") instanceof String known) {
+                        lastKnownName = known;
+                    }
+                } else {
+                    reader.skipPayload(type);
+                }
+            }
+
+            if (lastKnownName != null) {
+                String resolved = lastKnownName + " (" + owner + ")";
+                findings.replaceAll(finding -> new ScanFinding(finding.source(), resolved, finding.container(),
+                        finding.slot(), finding.itemId(), finding.reason()));
+            }
+
+            progress.fileDone(findings.size());
+            return findings;
+        } catch (IOException | RuntimeException e) {
+            progress.fileFailed();
+            plugin.getLogger().warning("Could not read playerdata " + fileName + ": " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private int scanItems(NbtReader reader, String source, String owner, String container, List<ScanFinding> findings) throws IOException {
+        byte elementType = reader.readType();
+        int length = reader.readInt();
+
+        if (elementType != NbtReader.TAG_COMPOUND) {
+            for (int i = 0; i < length; i++) {
+                reader.skipPayload(elementType);
+            }
+            return 0;
+        }
+
+        for (int i = 0; i < length; i++) {
+            long start = reader.position();
+            Map<String, Object> item = reader.readCompound();
+            long encodedBytes = reader.position() - start;
+
+            String id = ItemRules.id(item);
+            if (!ItemRules.isShulkerBox(id)) {
+                continue;
+            }
+
+            int slot = item.get("Slot") instanceof Byte value ? value : -1;
+            for (String violation : ItemRules.check(item, encodedBytes)) {
+                findings.add(new ScanFinding(source, owner, container, slot, id, violation));
+            }
+        }
+        return length;
+    }
+
+    private void reply(CommandSender sender, Component message) {
+        if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package com.github.mathsanalysis.vshulker.scan;
+
+import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+import com.github.mathsanalysis.vshulker.security.NBTValidator;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+public final class RegionScanner {
+
+    private static final long PROGRESS_INTERVAL_TICKS = 100L;
+    private static final int SECTOR_BYTES = 4096;
+    private static final int CHUNKS_PER_REGION = 1024;
+    private static final int COMPRESSION_GZIP = 1;
+    private static final int COMPRESSION_ZLIB = 2;
+    private static final int COMPRESSION_NONE = 3;
+    private static final int EXTERNAL_FLAG = 128;
+
+    private final VirtualShulkerPlugin plugin;
+    private final PluginMetrics metrics;
+    private final AtomicBoolean running;
+
+    private volatile boolean cancelled;
+    private volatile ForkJoinPool pool;
+
+    public RegionScanner(VirtualShulkerPlugin plugin, PluginMetrics metrics) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.running = new AtomicBoolean();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public void cancel() {
+        cancelled = true;
+        ForkJoinPool active = pool;
+        if (active != null) {
+            active.shutdownNow();
+        }
+    }
+
+    public boolean start(CommandSender sender, boolean quarantine) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        cancelled = false;
+
+        Map<String, File> worldFolders = new LinkedHashMap<>();
+        for (World world : Bukkit.getWorlds()) {
+            worldFolders.put(world.getName(), world.getWorldFolder());
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                List<RegionFile> regions = new ArrayList<>();
+                worldFolders.forEach((name, folder) -> collectRegions(name, folder, 0, regions));
+                run(sender, regions, quarantine);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    private void collectRegions(String worldName, File folder, int depth, List<RegionFile> regions) {
+        File[] children = folder.listFiles();
+        if (children == null) {
+            return;
+        }
+
+        for (File child : children) {
+            if (!child.isDirectory()) {
+                continue;
+            }
+
+            if (child.getName().equals("region")) {
+                File[] files = child.listFiles((dir, name) -> name.startsWith("r.") && name.endsWith(".mca"));
+                if (files != null) {
+                    for (File file : files) {
+                        regions.add(new RegionFile(worldName, file));
+                    }
+                }
+            } else if (depth < 2 && child.getName().startsWith("DIM")) {
+                collectRegions(worldName, child, depth + 1, regions);
+            }
+        }
+    }
+
+    private void run(CommandSender sender, List<RegionFile> regions, boolean quarantine) {
+        if (cancelled) {
+            return;
+        }
+
+        if (regions.isEmpty()) {
+            reply(sender, Component.text("No region files found", NamedTextColor.YELLOW));
+            return;
+        }
+
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ScanProgress progress = new ScanProgress("Region", regions.size());
+
+        reply(sender, Component.text("Scanning " + regions.size() + " region files on " + threads + " threads...", NamedTextColor.YELLOW));
+        BukkitTask reporter = Bukkit.getScheduler().runTaskTimer(plugin,
+                () -> sender.sendMessage(Component.text(progress.describe("chunks"), NamedTextColor.GRAY)),
+                PROGRESS_INTERVAL_TICKS, PROGRESS_INTERVAL_TICKS);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        this.pool = pool;
+        List<Located> findings;
+        try {
+            findings = pool.submit(() -> regions.parallelStream()
+                    .flatMap(region -> scanRegion(region, progress).stream())
+                    .toList()).get();
+        } catch (InterruptedException | CancellationException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            reply(sender, Component.text("Region scan interrupted", NamedTextColor.RED));
+            return;
+        } catch (ExecutionException e) {
+            plugin.getLogger().severe("Region scan failed: " + e.getCause());
+            reply(sender, Component.text("Region scan failed: " + e.getCause().getMessage(), NamedTextColor.RED));
+            return;
+        } finally {
+            this.pool = null;
+            pool.shutdown();
+            reporter.cancel();
+        }
+
+        if (cancelled) {
+            plugin.getLogger().warning("Region scan cancelled before completion, no report written");
+            return;
+        }
+
+        metrics.add("scan.region.files", progress.getProcessed());
+        metrics.add("scan.region.chunks", progress.getUnits());
+        metrics.add("scan.region.findings", findings.size());
+
+        List<ScanFinding> report = new ArrayList<>(findings.size());
+        for (Located located : findings) {
+            report.add(located.finding());
+        }
+
+        List<String> summary = List.of(
+                progress.describe("chunks"),
+                String.format("Elapsed: %.2fs on %d threads", progress.elapsedSeconds(), threads),
+                "Columns: region, world, x y z, slot, item, reason"
+        );
+        File reportFile = ScanReport.write(plugin, "regions", summary, report);
+        File quarantineFile = quarantine && !findings.isEmpty() ? writeQuarantine(findings) : null;
+
+        if (!findings.isEmpty()) {
+            plugin.getLogger().warning("Region scan found " + findings.size() + " suspicious items in placed shulkers"
+                    + (reportFile != null ? " - see " + reportFile.getName() : ""));
+        }
+
+        reply(sender, Component.text(String.format("✓ Region scan finished in %.2fs: %d chunks (%.0f/s), %d findings, %d unreadable",
+                progress.elapsedSeconds(), progress.getUnits(), progress.unitsPerSecond(), findings.size(), progress.getFailed()),
+                findings.isEmpty() ? NamedTextColor.GREEN : NamedTextColor.RED));
+        if (reportFile != null) {
+            reply(sender, Component.text("  Report: " + reportFile.getPath(), NamedTextColor.YELLOW));
+        }
+        if (quarantineFile != null) {
+            reply(sender, Component.text("  Quarantine list: " + quarantineFile.getPath(), NamedTextColor.YELLOW));
+        }
+    }
+
+    private List<Located> scanRegion(RegionFile region, ScanProgress progress) {
+        File file = region.file();
+        if (cancelled) {
+            return List.of();
+        }
+
+        if (file.length() < 2L * SECTOR_BYTES) {
+            progress.fileDone(0);
+            return List.of();
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            int[] coordinates = regionCoordinates(file.getName());
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            List<Located> findings = IntStream.range(0, CHUNKS_PER_REGION)
+                    .parallel()
+                    .mapToObj(index -> scanChunk(region, buffer, coordinates, index, progress))
+                    .flatMap(List::stream)
+                    .toList();
+
+            progress.fileDone(findings.size());
+            return findings;
+        } catch (IOException | RuntimeException e) {
+            progress.fileFailed();
+            plugin.getLogger().warning("Could not read region " + file.getPath() + ": " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private List<Located> scanChunk(RegionFile region, MappedByteBuffer buffer, int[] coordinates, int index, ScanProgress progress) {
+        if (cancelled) {
+            return List.of();
+        }
+
+        int location = buffer.getInt(index * 4);
+        int sectorOffset = location >>> 8;
+        int sectorCount = location & 0xFF;
+
+        if (sectorOffset == 0 || sectorCount == 0) {
+            return List.of();
+        }
+
+        int chunkX = coordinates[0] * 32 + (index & 31);
+        int chunkZ = coordinates[1] * 32 + (index >> 5);
+        long start = (long) sectorOffset * SECTOR_BYTES;
+
+        try {
+            if (start + 5 > buffer.capacity()) {
+                throw new IOException("Chunk sector outside file");
+            }
+
+            int length = buffer.getInt((int) start);
+            int compression = buffer.get((int) start + 4) & 0xFF;
+
+            byte[] data;
+            if ((compression & EXTERNAL_FLAG) != 0) {
+                compression &= ~EXTERNAL_FLAG;
+                File external = new File(region.file().getParentFile(), "c." + chunkX + "." + chunkZ + ".mcc");
+                data = Files.readAllBytes(external.toPath());
+            } else {
+                if (length <= 1 || start + 4 + length > buffer.capacity()) {
+                    throw new IOException("Invalid chunk length " + length);
+                }
+                data = new byte[length - 1];
+                buffer.get((int) start + 5, data);
+            }
+
+            List<Located> findings = new ArrayList<>(0);
+            try (InputStream in = decompress(compression, data)) {
+                NbtReader reader = new NbtReader(in);
+                if (reader.readType() != NbtReader.TAG_COMPOUND) {
+                    throw new IOException("Chunk root is not a compound");
+                }
+                reader.readName();
+                scanCompound(reader, region, findings, 0);
+            }
+
+            progress.addUnits(1);
+            return findings;
+        } catch (IOException | RuntimeException e) {
+            metrics.increment("scan.region.chunk_errors");
+            plugin.getLogger().warning("Could not read chunk " + chunkX + "," + chunkZ + " in "
+                    + region.file().getName() + ": " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void scanCompound(NbtReader reader, RegionFile region, List<Located> findings, int depth) throws IOException {
+        while (true) {
+            byte type = reader.readType();
+            if (type == NbtReader.TAG_END) {
+                return;
+            }
+
+            String name = reader.readName();
+            if (type == NbtReader.TAG_LIST && (name.equals("block_entities") || name.equals("TileEntities"))) {
+                scanBlockEntities(reader, region, findings);
+            } else if (type == NbtReader.TAG_COMPOUND && depth == 0 && name.equals("Level")) {
+                scanCompound(reader, region, findings, depth + 1);
+            } else {
+                reader.skipPayload(type);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scanBlockEntities(NbtReader reader, RegionFile region, List<Located> findings) throws IOException {
+        byte elementType = reader.readType();
+        int length = reader.readInt();
+
+        if (elementType != NbtReader.TAG_COMPOUND) {
+            for (int i = 0; i < length; i++) {
+                reader.skipPayload(elementType);
+            }
+            return;
+        }
+
+        for (int i = 0; i < length; i++) {
+            long start = reader.position();
+            Map<String, Object> blockEntity = reader.readCompound();
+            long encodedBytes = reader.position() - start;
+
+            String id = ItemRules.id(blockEntity);
+            if (!ItemRules.isShulkerBox(id)) {
+                continue;
+            }
+
+            int x = intValue(blockEntity.get("x"));
+            int y = intValue(blockEntity.get("y"));
+            int z = intValue(blockEntity.get("z"));
+            String position = x + " " + y + " " + z;
+
+            if (encodedBytes > NBTValidator.MAX_NBT_SIZE) {
+                findings.add(located(region, position, x, y, z, -1, id, "Block entity data exceeds limit (" + encodedBytes + " bytes)"));
+            }
+
+            if (!(blockEntity.get("Items") instanceof List<?> items)) {
+                continue;
+            }
+
+            for (Object entry : items) {
+                if (!(entry instanceof Map<?, ?> raw)) {
+                    continue;
+                }
+
+                Map<String, Object> item = (Map<String, Object>) raw;
+                String itemId = ItemRules.id(item);
+                int slot = item.get("Slot") instanceof Byte value ? value : -1;
+
+                if (ItemRules.isShulkerBox(itemId)) {
+                    findings.add(located(region, position, x, y, z, slot, itemId, "Nested shulker boxes are not allowed"));
+                }
+
+                for (String violation : ItemRules.check(item, 0)) {
+                    findings.add(located(region, position, x, y, z, slot, itemId, violation));
+                }
+            }
+        }
+    }
+
+    private static Located located(RegionFile region, String position, int x, int y, int z, int slot, String itemId, String reason) {
+        ScanFinding finding = new ScanFinding(region.file().getName(), region.world(), position, slot, itemId, reason);
+        return new Located(region.world(), x, y, z, finding);
+    }
+
+    private File writeQuarantine(List<Located> findings) {
+        File directory = new File(plugin.getDataFolder(), "scans");
+        if (!directory.exists() && !directory.mkdirs()) {
+            return null;
+        }
+
+        YamlConfiguration yaml = new YamlConfiguration();
+        int index = 0;
+        String lastKey = null;
+        for (Located located : findings) {
+            String key = located.world() + ":" + located.x() + ":" + located.y() + ":" + located.z();
+            if (key.equals(lastKey)) {
+                continue;
+            }
+            lastKey = key;
+
+            String path = "quarantine." + index++;
+            yaml.set(path + ".world", located.world());
+            yaml.set(path + ".x", located.x());
+            yaml.set(path + ".y", located.y());
+            yaml.set(path + ".z", located.z());
+            yaml.set(path + ".reason", located.finding().reason());
+        }
+
+        File file = new File(directory, "quarantine-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".yml");
+        try {
+            yaml.save(file);
+            return file;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to write quarantine list: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static InputStream decompress(int compression, byte[] data) throws IOException {
+        InputStream raw = new ByteArrayInputStream(data);
+        return switch (compression) {
+            case COMPRESSION_GZIP -> new BufferedInputStream(new GZIPInputStream(raw, 8192));
+            case COMPRESSION_ZLIB -> new BufferedInputStream(new InflaterInputStream(raw), 8192);
+            case COMPRESSION_NONE -> raw;
+            default -> throw new IOException("Unsupported chunk compression " + compression);
+        };
+    }
+
+    private static int[] regionCoordinates(String fileName) {
+        String[] parts = fileName.split("\\.");
+        return new int[]{Integer.parseInt(parts[1]), Integer.parseInt(parts[2])};
+    }
+
+    private static int intValue(Object value) {
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+
+    private void reply(CommandSender sender, Component message) {
+        if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+        }
+    }
+
+    private record RegionFile(String world, File file) {}
+
+    private record Located(String world, int x, int y, int z, ScanFinding finding) {}
+}
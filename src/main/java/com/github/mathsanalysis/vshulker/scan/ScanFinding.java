@@ -0,0 +1,10 @@
+package com.github.mathsanalysis.vshulker.scan;
+
+public record ScanFinding(
+        String source,
+        String owner,
+        String container,
+        int slot,
+        String itemId,
+        String reason
+) {}
@@ -0,0 +1,73 @@
+package com.github.mathsanalysis.vshulker.scan;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class ScanProgress {
+
+    private final String kind;
+    private final int total;
+    private final long startNanos;
+    private final AtomicInteger processed;
+    private final AtomicInteger failed;
+    private final AtomicInteger findings;
+    private final AtomicLong units;
+
+    public ScanProgress(String kind, int total) {
+        this.kind = kind;
+        this.total = total;
+        this.startNanos = System.nanoTime();
+        this.processed = new AtomicInteger();
+        this.failed = new AtomicInteger();
+        this.findings = new AtomicInteger();
+        this.units = new AtomicLong();
+    }
+
+    public void fileDone(int newFindings) {
+        processed.incrementAndGet();
+        findings.addAndGet(newFindings);
+    }
+
+    public void fileFailed() {
+        processed.incrementAndGet();
+        failed.incrementAndGet();
+    }
+
+    public void addUnits(long count) {
+        units.addAndGet(count);
+    }
+
+    public int getProcessed() {
+        return processed.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getFindings() {
+        return findings.get();
+    }
+
+    public long getUnits() {
+        return units.get();
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public double elapsedSeconds() {
+        return (System.nanoTime() - startNanos) / 1_000_000_000.0;
+    }
+
+    public double unitsPerSecond() {
+        double elapsed = elapsedSeconds();
+        return elapsed > 0 ? units.get() / elapsed : 0;
+    }
+
+    public String describe(String unitName) {
+        return String.format("%s scan: %d/%d files, %d %s (%.0f/s), %d findings, %d unreadable",
+                kind, processed.get(), total, units.get(), unitName, unitsPerSecond(), findings.get(), failed.get());
+    }
+}
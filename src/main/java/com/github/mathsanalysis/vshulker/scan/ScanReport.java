@@ -0,0 +1,49 @@
+package com.github.mathsanalysis.vshulker.scan;
+
+import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+public final class ScanReport {
+
+    private ScanReport() {
+    }
+
+    public static File write(VirtualShulkerPlugin plugin, String kind, List<String> summary, List<ScanFinding> findings) {
+        File directory = new File(plugin.getDataFolder(), "scans");
+        if (!directory.exists() && !directory.mkdirs()) {
+            plugin.getLogger().severe("Could not create scan folder: " + directory.getPath());
+            return null;
+        }
+
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File file = new File(directory, kind + "-" + stamp + ".txt");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("# VirtualShulker " + kind + " scan - " + new Date());
+            writer.newLine();
+            for (String line : summary) {
+                writer.write("# " + line);
+                writer.newLine();
+            }
+            writer.newLine();
+
+            for (ScanFinding finding : findings) {
+                writer.write(finding.source() + "\t" + finding.owner() + "\t" + finding.container() + "\t"
+                        + finding.slot() + "\t" + finding.itemId() + "\t" + finding.reason());
+                writer.newLine();
+            }
+            return file;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to write scan report " + file.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
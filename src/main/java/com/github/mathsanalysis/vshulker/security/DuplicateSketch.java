@@ -0,0 +1,342 @@
+package com.github.mathsanalysis.vshulker.security;
+
+import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
+import com.github.mathsanalysis.vshulker.config.SketchSettings;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class DuplicateSketch {
+
+    private static final int MAGIC = 0x56534353;
+    private static final int VERSION = 1;
+    private static final int MAX_FLAGGED = 64;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final VirtualShulkerPlugin plugin;
+    private final PluginMetrics metrics;
+    private final SketchSettings settings;
+    private final File file;
+    private final int mask;
+    private final int[] counters;
+    private final Map<Long, Flag> flagged;
+    private BukkitTask snapshotTask;
+    private boolean dirty;
+
+    private DuplicateSketch(VirtualShulkerPlugin plugin, PluginMetrics metrics, SketchSettings settings) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.settings = settings;
+        this.file = new File(plugin.getDataFolder(), settings.file());
+        this.mask = settings.width() - 1;
+        this.counters = new int[settings.enabled() ? settings.width() * settings.depth() : 0];
+        this.flagged = new LinkedHashMap<>(MAX_FLAGGED, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Flag> eldest) {
+                return size() > MAX_FLAGGED;
+            }
+        };
+    }
+
+    public static DuplicateSketch create(VirtualShulkerPlugin plugin, PluginMetrics metrics, SketchSettings settings) {
+        return new DuplicateSketch(plugin, metrics, settings);
+    }
+
+    public boolean isEnabled() {
+        return settings.enabled();
+    }
+
+    public void start() {
+        if (!settings.enabled()) {
+            return;
+        }
+
+        load();
+        snapshotTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::snapshot,
+                settings.snapshotIntervalTicks(), settings.snapshotIntervalTicks());
+    }
+
+    public long fingerprint(ItemStack item) {
+        if (item == null || item.getType().isAir() || !isTracked(item)) {
+            return 0L;
+        }
+
+        ItemStack single = item.clone();
+        single.setAmount(1);
+
+        long hash = FNV_OFFSET;
+        for (byte value : single.serializeAsBytes()) {
+            hash ^= value & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return hash == 0L ? 1L : hash;
+    }
+
+    public Slots track(ItemStack[] contents) {
+        Slots slots = new Slots(contents.length);
+        if (!settings.enabled()) {
+            return slots;
+        }
+
+        for (int i = 0; i < contents.length; i++) {
+            slots.set(i, contents[i], fingerprint(contents[i]));
+        }
+        return slots;
+    }
+
+    public List<Flag> recordCommit(Slots slots, ItemStack[] after) {
+        if (!settings.enabled()) {
+            return List.of();
+        }
+
+        long start = System.nanoTime();
+        Map<Long, Integer> delta = new HashMap<>();
+        Map<Long, Material> types = new HashMap<>();
+        int changed = 0;
+
+        for (int i = 0; i < after.length && i < slots.size(); i++) {
+            ItemStack item = after[i];
+            if (slots.matches(i, item)) {
+                continue;
+            }
+
+            long previous = slots.fingerprint(i);
+            long current = fingerprint(item);
+            slots.set(i, item, current);
+            changed++;
+
+            if (previous == current) {
+                continue;
+            }
+            if (previous != 0L) {
+                delta.merge(previous, -1, Integer::sum);
+            }
+            if (current != 0L) {
+                delta.merge(current, 1, Integer::sum);
+                types.putIfAbsent(current, item.getType());
+            }
+        }
+
+        List<Flag> raised = new ArrayList<>(0);
+        synchronized (this) {
+            for (Map.Entry<Long, Integer> entry : delta.entrySet()) {
+                int change = entry.getValue();
+                if (change == 0) {
+                    continue;
+                }
+
+                long fingerprint = entry.getKey();
+                int estimate = update(fingerprint, change);
+                dirty = true;
+
+                if (change > 0 && estimate >= settings.threshold()) {
+                    Flag flag = new Flag(fingerprint, types.get(fingerprint), estimate, System.currentTimeMillis());
+                    flagged.put(fingerprint, flag);
+                    raised.add(flag);
+                }
+            }
+        }
+
+        metrics.increment("sketch.commits");
+        metrics.add("sketch.fingerprints", changed);
+        metrics.add("sketch.updates", delta.size());
+        metrics.add("sketch.flags", raised.size());
+        metrics.recordTime("sketch.update", System.nanoTime() - start);
+        return raised;
+    }
+
+    public int estimate(ItemStack item) {
+        long fingerprint = fingerprint(item);
+        if (fingerprint == 0L || !settings.enabled()) {
+            return -1;
+        }
+
+        synchronized (this) {
+            return estimate(fingerprint);
+        }
+    }
+
+    public synchronized List<Flag> getFlagged() {
+        List<Flag> result = new ArrayList<>(flagged.values());
+        result.sort((a, b) -> Integer.compare(b.estimate(), a.estimate()));
+        return result;
+    }
+
+    public int getThreshold() {
+        return settings.threshold();
+    }
+
+    public long getMemoryBytes() {
+        return counters.length * 4L;
+    }
+
+    public void snapshot() {
+        int[] copy;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            copy = counters.clone();
+            dirty = false;
+        }
+
+        long start = System.nanoTime();
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(settings.width());
+            out.writeInt(settings.depth());
+            for (int value : copy) {
+                out.writeInt(value);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to snapshot duplicate sketch: " + e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to replace duplicate sketch snapshot: " + e.getMessage());
+            return;
+        }
+
+        metrics.increment("sketch.snapshots");
+        metrics.recordTime("sketch.snapshot", System.nanoTime() - start);
+    }
+
+    public void shutdown() {
+        if (snapshotTask != null) {
+            snapshotTask.cancel();
+            snapshotTask = null;
+        }
+
+        if (settings.enabled()) {
+            snapshot();
+        }
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                plugin.getLogger().warning("Ignoring duplicate sketch snapshot with unknown format: " + file.getName());
+                return;
+            }
+
+            if (in.readInt() != settings.width() || in.readInt() != settings.depth()) {
+                plugin.getLogger().warning("Duplicate sketch size changed, starting from an empty sketch");
+                return;
+            }
+
+            synchronized (this) {
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] = in.readInt();
+                }
+            }
+            plugin.getLogger().info("Loaded duplicate sketch snapshot (" + (getMemoryBytes() / 1024) + " KB)");
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to load duplicate sketch snapshot: " + e.getMessage());
+        }
+    }
+
+    private boolean isTracked(ItemStack item) {
+        if (!settings.materials().isEmpty() && !settings.materials().contains(item.getType())) {
+            return false;
+        }
+
+        if (settings.trackEnchanted() && !item.getEnchantments().isEmpty()) {
+            return true;
+        }
+
+        if (!item.hasItemMeta()) {
+            return false;
+        }
+
+        ItemMeta meta = item.getItemMeta();
+        return settings.trackNamed() && meta.hasDisplayName()
+                || settings.trackCustomData() && !meta.getPersistentDataContainer().isEmpty();
+    }
+
+    private int update(long fingerprint, int change) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < settings.depth(); row++) {
+            int index = row * settings.width() + bucket(fingerprint, row);
+            long value = Math.max(0L, Math.min(Integer.MAX_VALUE, (long) counters[index] + change));
+            counters[index] = (int) value;
+            estimate = Math.min(estimate, (int) value);
+        }
+        return estimate;
+    }
+
+    private int estimate(long fingerprint) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < settings.depth(); row++) {
+            estimate = Math.min(estimate, counters[row * settings.width() + bucket(fingerprint, row)]);
+        }
+        return estimate;
+    }
+
+    private int bucket(long fingerprint, int row) {
+        long hash = fingerprint + (row + 1) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        hash ^= hash >>> 31;
+        return (int) hash & mask;
+    }
+
+    public record Flag(long fingerprint, Material material, int estimate, long lastSeen) {}
+
+    public static final class Slots {
+        private final ItemStack[] items;
+        private final long[] fingerprints;
+
+        private Slots(int size) {
+            this.items = new ItemStack[size];
+            this.fingerprints = new long[size];
+        }
+
+        private int size() {
+            return items.length;
+        }
+
+        private long fingerprint(int slot) {
+            return fingerprints[slot];
+        }
+
+        private boolean matches(int slot, ItemStack item) {
+            ItemStack previous = items[slot];
+            if (previous == null) {
+                return item == null || item.getType().isAir();
+            }
+            return item != null && item.isSimilar(previous);
+        }
+
+        private void set(int slot, ItemStack item, long fingerprint) {
+            items[slot] = item == null || item.getType().isAir() ? null : item.clone();
+            fingerprints[slot] = fingerprint;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.github.mathsanalysis.vshulker.security;
 
+import com.github.mathsanalysis.vshulker.jfr.SnapshotHashEvent;
+import com.github.mathsanalysis.vshulker.metrics.MapFootprint;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
@@ -14,6 +16,7 @@ public final class InventorySnapshot {
     private final Map<UUID, List<String>> inventoryHistory;
     
     private static final int MAX_HISTORY = 10;
+    private static final long HASH_BYTES = 104;
 
     public InventorySnapshot() {
         this.playerSnapshots = new ConcurrentHashMap<>();
@@ -52,61 +55,68 @@ public final class InventorySnapshot {
         }
     }
 
-    public ValidationResult validateAgainstSnapshot(Player player, ItemStack[] currentShulkerContents) {
-        UUID playerId = player.getUniqueId();
+    public Baseline baseline(UUID playerId, boolean detached) {
         SnapshotData snapshot = playerSnapshots.get(playerId);
-        
         if (snapshot == null) {
-            return ValidationResult.valid();
+            return null;
         }
 
-        ItemStack[] currentPlayerInv = player.getInventory().getContents();
-        ItemStack[] currentEnderChest = player.getEnderChest().getContents();
-        
-        String currentPlayerHash = calculateHash(currentPlayerInv);
-        String currentShulkerHash = calculateHash(currentShulkerContents);
-        String currentEnderHash = calculateHash(currentEnderChest);
+        List<String> history = inventoryHistory.get(playerId);
+        return new Baseline(
+                snapshot.playerInventoryHash,
+                snapshot.shulkerContentsHash,
+                detached ? ItemKey.detached(snapshot.playerInventory) : ItemKey.live(snapshot.playerInventory),
+                detached ? ItemKey.detached(snapshot.shulkerContents) : ItemKey.live(snapshot.shulkerContents),
+                detached ? ItemKey.detached(snapshot.enderChestContents) : ItemKey.live(snapshot.enderChestContents),
+                history != null ? List.copyOf(history) : List.of()
+        );
+    }
 
-        if (currentPlayerHash.equals(snapshot.playerInventoryHash)) {
+    public static ValidationResult validateAgainstSnapshot(Baseline snapshot, ItemKey[] currentPlayerInv,
+                                                           ItemKey[] currentEnderChest, ItemKey[] currentShulkerContents,
+                                                           String currentPlayerHash, String currentEnderHash,
+                                                           String currentShulkerHash) {
+        if (snapshot == null) {
+            return ValidationResult.valid();
+        }
 
-            if (!currentShulkerHash.equals(snapshot.shulkerContentsHash)) {
+        if (currentPlayerHash.equals(snapshot.playerInventoryHash())) {
+
+            if (!currentShulkerHash.equals(snapshot.shulkerContentsHash())) {
                 return ValidationResult.invalid("Inventory rollback detected: Player inventory restored while shulker modified");
             }
         }
 
-        ItemCount snapshotCount = countAllItems(snapshot.playerInventory, snapshot.shulkerContents, snapshot.enderChestContents);
-        ItemCount currentCount = countAllItems(currentPlayerInv, currentShulkerContents, currentEnderChest);
+        int snapshotCount = countAllItems(snapshot.playerInventory(), snapshot.shulkerContents(), snapshot.enderChestContents());
+        int currentCount = countAllItems(currentPlayerInv, currentShulkerContents, currentEnderChest);
         
-        if (currentCount.totalItems > snapshotCount.totalItems) {
-            int diff = currentCount.totalItems - snapshotCount.totalItems;
+        if (currentCount > snapshotCount) {
+            int diff = currentCount - snapshotCount;
             return ValidationResult.invalid("Item duplication detected: " + diff + " items added from nowhere");
         }
 
-        List<String> history = inventoryHistory.get(playerId);
-        if (history != null) {
-            String currentCombinedHash = calculateCombinedHash(currentPlayerHash, currentShulkerHash, currentEnderHash);
+        String currentCombinedHash = calculateCombinedHash(currentPlayerHash, currentShulkerHash, currentEnderHash);
 
-            long occurrences = 0;
-            for (var h : history) {
-                if (h.equals(currentCombinedHash)) {
-                    occurrences++;
-                }
-            }
-            
-            if (occurrences > 2) {
-                return ValidationResult.invalid("Suspicious pattern: Identical state repeated " + occurrences + " times");
+        long occurrences = 0;
+        for (var h : snapshot.history()) {
+            if (h.equals(currentCombinedHash)) {
+                occurrences++;
             }
         }
 
+        if (occurrences > 2) {
+            return ValidationResult.invalid("Suspicious pattern: Identical state repeated " + occurrences + " times");
+        }
+
         int restoredSlots = 0;
-        for (int i = 0; i < currentPlayerInv.length && i < snapshot.playerInventory.length; i++) {
-            if (areItemsIdentical(currentPlayerInv[i], snapshot.playerInventory[i])) {
+        for (int i = 0; i < currentPlayerInv.length && i < snapshot.playerInventory().length; i++) {
+            if (areItemsIdentical(currentPlayerInv[i], snapshot.playerInventory()[i])) {
                 restoredSlots++;
             }
         }
 
         float restoredPercentage = (float) restoredSlots / currentPlayerInv.length;
-        if (restoredPercentage > 0.8f && !currentShulkerHash.equals(snapshot.shulkerContentsHash)) {
+        if (restoredPercentage > 0.8f && !currentShulkerHash.equals(snapshot.shulkerContentsHash())) {
             return ValidationResult.invalid("Partial inventory rollback detected: " + 
                     String.format("%.0f%%", restoredPercentage * 100) + " slots restored");
         }
@@ -114,67 +124,129 @@ public final class InventorySnapshot {
         return ValidationResult.valid();
     }
 
-    public ValidationResult detectImpossibleModifications(Player player, ItemStack[] shulkerBefore, ItemStack[] shulkerAfter) {
-        UUID playerId = player.getUniqueId();
-        SnapshotData snapshot = playerSnapshots.get(playerId);
-        
+    public static ValidationResult detectImpossibleModifications(Baseline snapshot, ItemKey[] currentPlayerInv,
+                                                                 ItemKey[] currentEnderChest,
+                                                                 ItemKey[] shulkerBefore, ItemKey[] shulkerAfter) {
         if (snapshot == null) {
             return ValidationResult.valid();
         }
 
-        ItemStack[] currentPlayerInv = player.getInventory().getContents();
-
-        ItemCount beforeTotal = countAllItems(snapshot.playerInventory, shulkerBefore, snapshot.enderChestContents);
-        ItemCount afterTotal = countAllItems(currentPlayerInv, shulkerAfter, player.getEnderChest().getContents());
+        int beforeTotal = countAllItems(snapshot.playerInventory(), shulkerBefore, snapshot.enderChestContents());
+        int afterTotal = countAllItems(currentPlayerInv, shulkerAfter, currentEnderChest);
 
-        if (afterTotal.totalItems > beforeTotal.totalItems) {
+        if (afterTotal > beforeTotal) {
             return ValidationResult.invalid("Impossible modification: Items increased during session");
         }
 
-        Map<String, Integer> beforeItems = countItemTypes(snapshot.playerInventory, shulkerBefore);
-        Map<String, Integer> afterItems = countItemTypes(currentPlayerInv, shulkerAfter);
-        
-        for (Map.Entry<String, Integer> entry : afterItems.entrySet()) {
-            String itemType = entry.getKey();
-            int afterCount = entry.getValue();
-            int beforeCount = beforeItems.getOrDefault(itemType, 0);
-            
-            if (afterCount > beforeCount) {
-                return ValidationResult.invalid("Item type increased: " + itemType + " (before: " + beforeCount + ", after: " + afterCount + ")");
-            }
+        ItemAccounting accounting = ItemAccounting.local();
+        accounting.addBefore(snapshot.playerInventory());
+        accounting.addBefore(shulkerBefore);
+        accounting.addAfter(currentPlayerInv);
+        accounting.addAfter(shulkerAfter);
+
+        ItemAccounting.Increase increase = accounting.findIncrease();
+        if (increase != null) {
+            return ValidationResult.invalid("Item type increased: " + increase.type() + " (before: " + increase.before() + ", after: " + increase.after() + ")");
         }
 
         return ValidationResult.valid();
     }
 
+    public boolean hasSnapshot(UUID playerId) {
+        return playerSnapshots.containsKey(playerId);
+    }
+
     public void clearSnapshot(UUID playerId) {
         playerSnapshots.remove(playerId);
         inventoryHistory.remove(playerId);
     }
 
+    public int sweep(Set<UUID> keep, Set<UUID> online, long now, long idleMillis) {
+        int removed = 0;
+
+        for (Map.Entry<UUID, SnapshotData> entry : playerSnapshots.entrySet()) {
+            if (!keep.contains(entry.getKey()) && now - entry.getValue().timestamp > idleMillis
+                    && playerSnapshots.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+
+        for (UUID playerId : inventoryHistory.keySet()) {
+            if (!online.contains(playerId) && !playerSnapshots.containsKey(playerId)
+                    && inventoryHistory.remove(playerId) != null) {
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+
+    public List<MapFootprint> footprint() {
+        long snapshotBytes = 0;
+        for (SnapshotData snapshot : playerSnapshots.values()) {
+            snapshotBytes += MapFootprint.ENTRY_BYTES + 48L
+                    + HASH_BYTES * 4
+                    + MapFootprint.array(snapshot.playerInventory)
+                    + MapFootprint.array(snapshot.shulkerContents)
+                    + MapFootprint.array(snapshot.enderChestContents);
+        }
+
+        long historyBytes = 0;
+        int historyEntries = 0;
+        for (List<String> history : inventoryHistory.values()) {
+            historyEntries++;
+            historyBytes += MapFootprint.ENTRY_BYTES + 40L + history.size() * (4L + HASH_BYTES);
+        }
+
+        return List.of(
+                new MapFootprint("snapshots", playerSnapshots.size(), snapshotBytes),
+                new MapFootprint("snapshot history", historyEntries, historyBytes)
+        );
+    }
+
     public long getSnapshotAge(UUID playerId) {
         SnapshotData snapshot = playerSnapshots.get(playerId);
         return snapshot != null ? System.currentTimeMillis() - snapshot.timestamp : -1;
     }
 
-    private String calculateHash(ItemStack[] items) {
+    public static String calculateHash(ItemStack[] items) {
+        SnapshotHashEvent event = new SnapshotHashEvent();
+        event.begin();
+
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            
+            long hashedBytes = 0;
+            int itemCount = 0;
+
             for (ItemStack item : items) {
                 if (item == null) {
                     digest.update((byte) 0);
+                    hashedBytes++;
                 } else {
-                    digest.update(item.getType().name().getBytes());
+                    byte[] type = item.getType().name().getBytes();
+                    digest.update(type);
                     digest.update((byte) item.getAmount());
+                    hashedBytes += type.length + 1;
+                    itemCount += item.getAmount();
                     
                     if (item.hasItemMeta()) {
-                        digest.update(item.getItemMeta().toString().getBytes());
+                        byte[] meta = item.getItemMeta().toString().getBytes();
+                        digest.update(meta);
+                        hashedBytes += meta.length;
                     }
                 }
             }
             
             byte[] hash = digest.digest();
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.slots = items.length;
+                event.itemCount = itemCount;
+                event.hashedBytes = hashedBytes;
+                event.commit();
+            }
+
             StringBuilder hexString = new StringBuilder();
             for (byte b : hash) {
                 String hex = Integer.toHexString(0xff & b);
@@ -189,7 +261,7 @@ public final class InventorySnapshot {
         }
     }
 
-    private String calculateCombinedHash(String... hashes) {
+    private static String calculateCombinedHash(String... hashes) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             
@@ -212,58 +284,18 @@ public final class InventorySnapshot {
         }
     }
 
-    private ItemCount countAllItems(ItemStack[] playerInv, ItemStack[] shulkerInv, ItemStack[] enderChest) {
-        int total = 0;
-        
-        for (ItemStack item : playerInv) {
-            if (item != null) total += item.getAmount();
-        }
-        
-        for (ItemStack item : shulkerInv) {
-            if (item != null) total += item.getAmount();
-        }
-        
-        for (ItemStack item : enderChest) {
-            if (item != null) total += item.getAmount();
-        }
-        
-        return new ItemCount(total);
-    }
-
-    private Map<String, Integer> countItemTypes(ItemStack[] inv1, ItemStack[] inv2) {
-        Map<String, Integer> counts = new HashMap<>();
-        
-        for (ItemStack item : inv1) {
-            if (item != null) {
-                String key = item.getType().name();
-                counts.put(key, counts.getOrDefault(key, 0) + item.getAmount());
-            }
-        }
-        
-        for (ItemStack item : inv2) {
-            if (item != null) {
-                String key = item.getType().name();
-                counts.put(key, counts.getOrDefault(key, 0) + item.getAmount());
-            }
-        }
-        
-        return counts;
+    private static int countAllItems(ItemKey[] playerInv, ItemKey[] shulkerInv, ItemKey[] enderChest) {
+        return ItemKey.total(playerInv) + ItemKey.total(shulkerInv) + ItemKey.total(enderChest);
     }
 
-    private boolean areItemsIdentical(ItemStack item1, ItemStack item2) {
+    private static boolean areItemsIdentical(ItemKey item1, ItemKey item2) {
         if (item1 == null && item2 == null) return true;
         if (item1 == null || item2 == null) return false;
         
-        if (item1.getType() != item2.getType()) return false;
-        if (item1.getAmount() != item2.getAmount()) return false;
-        
-        if (item1.hasItemMeta() != item2.hasItemMeta()) return false;
+        if (item1.type() != item2.type()) return false;
+        if (item1.amount() != item2.amount()) return false;
         
-        if (item1.hasItemMeta() && item2.hasItemMeta()) {
-            return item1.getItemMeta().equals(item2.getItemMeta());
-        }
-        
-        return true;
+        return item1.isSimilar(item2);
     }
 
     private ItemStack[] deepClone(ItemStack[] items) {
@@ -276,6 +308,15 @@ public final class InventorySnapshot {
         return cloned;
     }
 
+    public record Baseline(
+            String playerInventoryHash,
+            String shulkerContentsHash,
+            ItemKey[] playerInventory,
+            ItemKey[] shulkerContents,
+            ItemKey[] enderChestContents,
+            List<String> history
+    ) {}
+
     private record SnapshotData(
             long timestamp,
             String playerInventoryHash,
@@ -286,6 +327,4 @@ public final class InventorySnapshot {
             ItemStack[] shulkerContents,
             ItemStack[] enderChestContents
     ) {}
-
-    private record ItemCount(int totalItems) {}
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.github.mathsanalysis.vshulker.security;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+
+public final class ItemAccounting {
+
+    private static final Material[] MATERIALS = Material.values();
+    private static final boolean[] SHULKER_BOXES = new boolean[MATERIALS.length];
+    private static final boolean[] MUTABLE = new boolean[MATERIALS.length];
+    private static final int INITIAL_VARIANTS = 32;
+    private static final ThreadLocal<ItemAccounting> LOCAL = ThreadLocal.withInitial(ItemAccounting::new);
+
+    static {
+        for (Material material : MATERIALS) {
+            String name = material.name();
+            if (name.startsWith("LEGACY_")) {
+                continue;
+            }
+
+            SHULKER_BOXES[material.ordinal()] = name.endsWith("SHULKER_BOX");
+            MUTABLE[material.ordinal()] = name.endsWith("BUNDLE") || (material.isItem() && material.getMaxDurability() > 0);
+        }
+    }
+
+    private final int[] plainBefore;
+    private final int[] plainAfter;
+    private final int[] touched;
+    private final boolean[] isTouched;
+    private int touchedCount;
+
+    private ItemKey[] variantKeys;
+    private int[] variantBefore;
+    private int[] variantAfter;
+    private int variantCount;
+
+    private ItemAccounting() {
+        this.plainBefore = new int[MATERIALS.length];
+        this.plainAfter = new int[MATERIALS.length];
+        this.touched = new int[MATERIALS.length];
+        this.isTouched = new boolean[MATERIALS.length];
+        this.variantKeys = new ItemKey[INITIAL_VARIANTS];
+        this.variantBefore = new int[INITIAL_VARIANTS];
+        this.variantAfter = new int[INITIAL_VARIANTS];
+    }
+
+    public static boolean isShulkerBox(Material material) {
+        return material != null && SHULKER_BOXES[material.ordinal()];
+    }
+
+    public static boolean isShulkerBox(ItemStack item) {
+        return item != null && SHULKER_BOXES[item.getType().ordinal()];
+    }
+
+    public static ItemAccounting local() {
+        ItemAccounting accounting = LOCAL.get();
+        accounting.reset();
+        return accounting;
+    }
+
+    public void addBefore(ItemKey[] items) {
+        add(items, true);
+    }
+
+    public void addAfter(ItemKey[] items) {
+        add(items, false);
+    }
+
+    public Increase findIncrease() {
+        for (int i = 0; i < touchedCount; i++) {
+            int ordinal = touched[i];
+            if (plainAfter[ordinal] > plainBefore[ordinal]) {
+                return new Increase(MATERIALS[ordinal].name(), plainBefore[ordinal], plainAfter[ordinal]);
+            }
+        }
+
+        for (int i = 0; i < variantKeys.length; i++) {
+            if (variantKeys[i] != null && variantAfter[i] > variantBefore[i]) {
+                return new Increase(variantKeys[i].type().name() + " (with item data)", variantBefore[i], variantAfter[i]);
+            }
+        }
+
+        return null;
+    }
+
+    private void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            int ordinal = touched[i];
+            plainBefore[ordinal] = 0;
+            plainAfter[ordinal] = 0;
+            isTouched[ordinal] = false;
+        }
+        touchedCount = 0;
+
+        if (variantCount > 0) {
+            Arrays.fill(variantKeys, null);
+            Arrays.fill(variantBefore, 0);
+            Arrays.fill(variantAfter, 0);
+            variantCount = 0;
+        }
+    }
+
+    private void add(ItemKey[] items, boolean before) {
+        if (items == null) {
+            return;
+        }
+
+        for (ItemKey item : items) {
+            if (item == null) {
+                continue;
+            }
+
+            int ordinal = item.type().ordinal();
+            if (MUTABLE[ordinal] || SHULKER_BOXES[ordinal] || !item.hasMeta()) {
+                if (!isTouched[ordinal]) {
+                    isTouched[ordinal] = true;
+                    touched[touchedCount++] = ordinal;
+                }
+                if (before) {
+                    plainBefore[ordinal] += item.amount();
+                } else {
+                    plainAfter[ordinal] += item.amount();
+                }
+                continue;
+            }
+
+            int slot = variantSlot(item);
+            if (before) {
+                variantBefore[slot] += item.amount();
+            } else {
+                variantAfter[slot] += item.amount();
+            }
+        }
+    }
+
+    private int variantSlot(ItemKey item) {
+        if ((variantCount + 1) * 2 > variantKeys.length) {
+            grow();
+        }
+
+        int mask = variantKeys.length - 1;
+        int slot = mix(item.type().ordinal()) & mask;
+        while (true) {
+            ItemKey key = variantKeys[slot];
+            if (key == null) {
+                variantKeys[slot] = item;
+                variantCount++;
+                return slot;
+            }
+            if (key.isSimilar(item)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        ItemKey[] oldKeys = variantKeys;
+        int[] oldBefore = variantBefore;
+        int[] oldAfter = variantAfter;
+
+        variantKeys = new ItemKey[oldKeys.length * 2];
+        variantBefore = new int[variantKeys.length];
+        variantAfter = new int[variantKeys.length];
+
+        int mask = variantKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) {
+                continue;
+            }
+
+            int slot = mix(oldKeys[i].type().ordinal()) & mask;
+            while (variantKeys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            variantKeys[slot] = oldKeys[i];
+            variantBefore[slot] = oldBefore[i];
+            variantAfter[slot] = oldAfter[i];
+        }
+    }
+
+    private static int mix(int value) {
+        int hash = value * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    public record Increase(String type, int before, int after) {}
+}
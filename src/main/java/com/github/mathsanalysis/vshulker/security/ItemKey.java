@@ -0,0 +1,91 @@
+package com.github.mathsanalysis.vshulker.security;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+
+public final class ItemKey {
+
+    private final Material type;
+    private final int amount;
+    private final boolean hasMeta;
+    private final ItemStack stack;
+    private final byte[] data;
+
+    private ItemKey(Material type, int amount, boolean hasMeta, ItemStack stack, byte[] data) {
+        this.type = type;
+        this.amount = amount;
+        this.hasMeta = hasMeta;
+        this.stack = stack;
+        this.data = data;
+    }
+
+    public static ItemKey[] live(ItemStack[] items) {
+        if (items == null) {
+            return null;
+        }
+
+        ItemKey[] keys = new ItemKey[items.length];
+        for (int i = 0; i < items.length; i++) {
+            ItemStack item = items[i];
+            if (item != null && !item.getType().isAir()) {
+                keys[i] = new ItemKey(item.getType(), item.getAmount(), item.hasItemMeta(), item, null);
+            }
+        }
+        return keys;
+    }
+
+    public static ItemKey[] detached(ItemStack[] items) {
+        if (items == null) {
+            return null;
+        }
+
+        ItemKey[] keys = new ItemKey[items.length];
+        for (int i = 0; i < items.length; i++) {
+            ItemStack item = items[i];
+            if (item != null && !item.getType().isAir()) {
+                boolean hasMeta = item.hasItemMeta();
+                keys[i] = new ItemKey(item.getType(), item.getAmount(), hasMeta, null,
+                        hasMeta ? item.asOne().serializeAsBytes() : null);
+            }
+        }
+        return keys;
+    }
+
+    public static int total(ItemKey[] keys) {
+        int total = 0;
+        if (keys != null) {
+            for (ItemKey key : keys) {
+                if (key != null) {
+                    total += key.amount;
+                }
+            }
+        }
+        return total;
+    }
+
+    public Material type() {
+        return type;
+    }
+
+    public int amount() {
+        return amount;
+    }
+
+    public boolean hasMeta() {
+        return hasMeta;
+    }
+
+    public boolean isSimilar(ItemKey other) {
+        if (other == null || type != other.type || hasMeta != other.hasMeta) {
+            return false;
+        }
+
+        if (!hasMeta) {
+            return true;
+        }
+
+        return stack != null && other.stack != null ? stack.isSimilar(other.stack) : Arrays.equals(data, other.data);
+    }
+}
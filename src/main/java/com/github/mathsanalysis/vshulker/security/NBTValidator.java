@@ -1,40 +1,17 @@
 package com.github.mathsanalysis.vshulker.security;
 
+import com.github.mathsanalysis.vshulker.utils.ShulkerContents;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.BlockStateMeta;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.block.ShulkerBox;
-
-import java.util.HashSet;
-import java.util.Set;
 
 public final class NBTValidator {
 
-    private static final int MAX_NBT_SIZE = 2097152;
-    private static final int MAX_DISPLAY_NAME_LENGTH = 256;
-    private static final int MAX_LORE_LINES = 50;
-    private static final int MAX_LORE_LINE_LENGTH = 256;
-
-    private static final Set<Material> SHULKER_BOXES = Set.of(
-            Material.SHULKER_BOX,
-            Material.WHITE_SHULKER_BOX,
-            Material.ORANGE_SHULKER_BOX,
-            Material.MAGENTA_SHULKER_BOX,
-            Material.LIGHT_BLUE_SHULKER_BOX,
-            Material.YELLOW_SHULKER_BOX,
-            Material.LIME_SHULKER_BOX,
-            Material.PINK_SHULKER_BOX,
-            Material.GRAY_SHULKER_BOX,
-            Material.LIGHT_GRAY_SHULKER_BOX,
-            Material.CYAN_SHULKER_BOX,
-            Material.PURPLE_SHULKER_BOX,
-            Material.BLUE_SHULKER_BOX,
-            Material.BROWN_SHULKER_BOX,
-            Material.GREEN_SHULKER_BOX,
-            Material.RED_SHULKER_BOX,
-            Material.BLACK_SHULKER_BOX
-    );
+    public static final int MAX_NBT_SIZE = 2097152;
+    public static final int MAX_DISPLAY_NAME_LENGTH = 256;
+    public static final int MAX_LORE_LINES = 50;
+    public static final int MAX_LORE_LINE_LENGTH = 256;
+    public static final int MAX_NESTING_DEPTH = 3;
 
     public static ValidationResult validate(ItemStack item) {
         if (item == null || item.getType() == Material.AIR) {
@@ -92,7 +69,7 @@ public final class NBTValidator {
     }
 
     private static ValidationResult checkNestedShulkers(ItemStack item, int depth) {
-        if (depth > 3) {
+        if (depth > MAX_NESTING_DEPTH) {
             return ValidationResult.invalid("Shulker nesting depth exceeds limit");
         }
 
@@ -100,18 +77,7 @@ public final class NBTValidator {
             return ValidationResult.valid();
         }
 
-        if (!(item.getItemMeta() instanceof BlockStateMeta meta)) {
-            return ValidationResult.valid();
-        }
-
-        if (!(meta.getBlockState() instanceof ShulkerBox shulkerBox)) {
-            return ValidationResult.valid();
-        }
-
-        ItemStack[] contents = shulkerBox.getInventory().getContents();
-        if (contents == null) {
-            return ValidationResult.valid();
-        }
+        ItemStack[] contents = ShulkerContents.read(item);
 
         for (ItemStack contained : contents) {
             if (contained == null) continue;
@@ -173,18 +139,7 @@ public final class NBTValidator {
 
         ItemStack cleaned = item.clone();
 
-        if (!(cleaned.getItemMeta() instanceof BlockStateMeta meta)) {
-            return cleaned;
-        }
-
-        if (!(meta.getBlockState() instanceof ShulkerBox shulkerBox)) {
-            return cleaned;
-        }
-
-        ItemStack[] contents = shulkerBox.getInventory().getContents();
-        if (contents == null) {
-            return cleaned;
-        }
+        ItemStack[] contents = ShulkerContents.read(cleaned);
 
         for (int i = 0; i < contents.length; i++) {
             if (contents[i] != null && isShulkerBox(contents[i])) {
@@ -192,14 +147,12 @@ public final class NBTValidator {
             }
         }
 
-        shulkerBox.getInventory().setContents(contents);
-        meta.setBlockState(shulkerBox);
-        cleaned.setItemMeta(meta);
+        ShulkerContents.write(cleaned, contents);
 
         return cleaned;
     }
 
     private static boolean isShulkerBox(ItemStack item) {
-        return item != null && SHULKER_BOXES.contains(item.getType());
+        return ItemAccounting.isShulkerBox(item);
     }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.github.mathsanalysis.vshulker.security;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BlockStateMeta;
+
+import java.util.List;
+import java.util.Map;
+
+public record ShulkerIdentity(
+        Material type,
+        Component displayName,
+        List<Component> lore,
+        Map<Enchantment, Integer> enchants
+) {
+
+    public static ShulkerIdentity of(ItemStack item) {
+        if (!ItemAccounting.isShulkerBox(item) || !(item.getItemMeta() instanceof BlockStateMeta meta)) {
+            return null;
+        }
+
+        return new ShulkerIdentity(item.getType(), meta.displayName(), meta.lore(), meta.getEnchants());
+    }
+}
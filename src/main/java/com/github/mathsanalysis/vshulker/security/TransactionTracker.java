@@ -1,5 +1,6 @@
 package com.github.mathsanalysis.vshulker.security;
 
+import com.github.mathsanalysis.vshulker.metrics.MapFootprint;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
@@ -42,7 +43,10 @@ public final class TransactionTracker {
     }
 
     public boolean detectSuspiciousActivity(Player player) {
-        UUID playerId = player.getUniqueId();
+        return detectSuspiciousActivity(player.getUniqueId());
+    }
+
+    public boolean detectSuspiciousActivity(UUID playerId) {
         PlayerTransactionLog log = playerLogs.get(playerId);
         
         if (log == null) {
@@ -73,6 +77,38 @@ public final class TransactionTracker {
         lastOperationTime.remove(playerId);
     }
 
+    public int sweep(Set<UUID> keep, long now, long idleMillis) {
+        int removed = 0;
+
+        for (Map.Entry<UUID, PlayerTransactionLog> entry : playerLogs.entrySet()) {
+            if (!keep.contains(entry.getKey()) && now - entry.getValue().getLastActivity() > idleMillis
+                    && playerLogs.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+
+        for (Map.Entry<UUID, Long> entry : lastOperationTime.entrySet()) {
+            if (now - entry.getValue() > OPERATION_COOLDOWN_MS && lastOperationTime.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+
+    public List<MapFootprint> footprint() {
+        long logBytes = 0;
+        for (PlayerTransactionLog log : playerLogs.values()) {
+            logBytes += MapFootprint.ENTRY_BYTES + log.estimateBytes();
+        }
+
+        return List.of(
+                new MapFootprint("transaction logs", playerLogs.size(), logBytes),
+                new MapFootprint("rate limits", lastOperationTime.size(),
+                        lastOperationTime.size() * (MapFootprint.ENTRY_BYTES + MapFootprint.BOXED_BYTES))
+        );
+    }
+
     public void createCheckpoint(Player player, ItemStack[] contents) {
         UUID playerId = player.getUniqueId();
         PlayerTransactionLog log = playerLogs.computeIfAbsent(playerId, k -> new PlayerTransactionLog());
@@ -87,9 +123,11 @@ public final class TransactionTracker {
     private static class PlayerTransactionLog {
         private final Deque<Transaction> transactions = new ArrayDeque<>(100);
         private ItemStack[] checkpoint;
+        private volatile long lastActivity = System.currentTimeMillis();
 
         void addTransaction(Transaction transaction) {
             transactions.addLast(transaction);
+            lastActivity = transaction.timestamp();
 
             while (transactions.size() > 100) {
                 transactions.removeFirst();
@@ -121,6 +159,15 @@ public final class TransactionTracker {
 
         void setCheckpoint(ItemStack[] contents) {
             this.checkpoint = contents != null ? contents.clone() : null;
+            this.lastActivity = System.currentTimeMillis();
+        }
+
+        long getLastActivity() {
+            return lastActivity;
+        }
+
+        long estimateBytes() {
+            return 64L + transactions.size() * 48L + MapFootprint.array(checkpoint);
         }
 
         ItemStack[] getCheckpoint() {
@@ -1,25 +1,28 @@
 package com.github.mathsanalysis.vshulker.tasks;
 
 import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
+import com.github.mathsanalysis.vshulker.config.Config;
 import com.github.mathsanalysis.vshulker.manager.VirtualShulkerManager;
 import org.bukkit.scheduler.BukkitRunnable;
 
-public final class SessionValidationTask extends BukkitRunnable {
+public final class LeakSweepTask extends BukkitRunnable {
 
     private final VirtualShulkerPlugin plugin;
     private final VirtualShulkerManager manager;
 
-    public SessionValidationTask(VirtualShulkerPlugin plugin, VirtualShulkerManager manager) {
+    public LeakSweepTask(VirtualShulkerPlugin plugin, VirtualShulkerManager manager) {
         this.plugin = plugin;
         this.manager = manager;
     }
 
     @Override
     public void run() {
-        manager.validateAllSessions();
+        manager.sweepLeaks();
+        manager.getAdminNotifier().refreshAll();
     }
 
     public void start() {
-        this.runTaskTimer(plugin, 1L, 1L);
+        long interval = Config.get().sweepIntervalTicks();
+        this.runTaskTimer(plugin, interval, interval);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,300 @@
+package com.github.mathsanalysis.vshulker.tasks;
+
+import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
+import com.github.mathsanalysis.vshulker.config.Config;
+import com.github.mathsanalysis.vshulker.config.SchedulerSettings;
+import com.github.mathsanalysis.vshulker.jfr.ValidationSweepEvent;
+import com.github.mathsanalysis.vshulker.manager.VirtualShulkerManager;
+import com.github.mathsanalysis.vshulker.metrics.MapFootprint;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+public final class TickBudgetScheduler extends BukkitRunnable {
+
+    private final VirtualShulkerPlugin plugin;
+    private final VirtualShulkerManager manager;
+    private final PluginMetrics metrics;
+    private final Map<UUID, Long> autoSaveDue;
+    private final Map<UUID, Long> lastValidated;
+    private final ConcurrentLinkedDeque<UUID> validationQueue;
+    private long nextCleanupTick;
+    private boolean started;
+    private volatile int deferredDepth;
+    private volatile int maxDeferredDepth;
+
+    public TickBudgetScheduler(VirtualShulkerPlugin plugin, VirtualShulkerManager manager, PluginMetrics metrics) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.metrics = metrics;
+        this.autoSaveDue = new ConcurrentHashMap<>();
+        this.lastValidated = new ConcurrentHashMap<>();
+        this.validationQueue = new ConcurrentLinkedDeque<>();
+    }
+
+    public void start() {
+        nextCleanupTick = Bukkit.getCurrentTick() + Config.get().scheduler().cleanupIntervalTicks();
+        this.runTaskTimer(plugin, 1L, 1L);
+        started = true;
+    }
+
+    public void stop() {
+        if (started) {
+            started = false;
+            cancel();
+        }
+    }
+
+    public void track(UUID playerId) {
+        if (lastValidated.put(playerId, (long) Bukkit.getCurrentTick()) == null) {
+            validationQueue.addLast(playerId);
+        }
+    }
+
+    public void untrack(UUID playerId) {
+        if (lastValidated.remove(playerId) != null) {
+            validationQueue.remove(playerId);
+        }
+        autoSaveDue.remove(playerId);
+    }
+
+    public void requestAutoSave(UUID playerId, long delayTicks) {
+        autoSaveDue.put(playerId, Bukkit.getCurrentTick() + delayTicks);
+    }
+
+    public boolean cancelAutoSave(UUID playerId) {
+        return autoSaveDue.remove(playerId) != null;
+    }
+
+    public int sweep(Set<UUID> sessions) {
+        int removed = 0;
+        for (UUID playerId : autoSaveDue.keySet()) {
+            if (!sessions.contains(playerId) && autoSaveDue.remove(playerId) != null) {
+                removed++;
+            }
+        }
+        for (UUID playerId : lastValidated.keySet()) {
+            if (!sessions.contains(playerId) && lastValidated.remove(playerId) != null) {
+                removed++;
+            }
+        }
+        validationQueue.removeIf(playerId -> !lastValidated.containsKey(playerId));
+        return removed;
+    }
+
+    public List<MapFootprint> footprint() {
+        return List.of(
+                new MapFootprint("autosave queue", autoSaveDue.size(),
+                        autoSaveDue.size() * (MapFootprint.ENTRY_BYTES + MapFootprint.BOXED_BYTES)),
+                new MapFootprint("validation queue", lastValidated.size(),
+                        lastValidated.size() * (MapFootprint.ENTRY_BYTES + MapFootprint.BOXED_BYTES + 24L))
+        );
+    }
+
+    public int getDeferredDepth() {
+        return deferredDepth;
+    }
+
+    public int getMaxDeferredDepth() {
+        return maxDeferredDepth;
+    }
+
+    public void clear() {
+        autoSaveDue.clear();
+        lastValidated.clear();
+        validationQueue.clear();
+    }
+
+    @Override
+    public void run() {
+        SchedulerSettings settings = Config.get().scheduler();
+        long now = Bukkit.getCurrentTick();
+        long start = System.nanoTime();
+        long deadline = start + settings.budgetMicros() * 1000L;
+        boolean overloaded = Bukkit.getAverageTickTime() > settings.highMspt();
+
+        int deferred = runAutoSaves(now, deadline, settings);
+        deferred += runValidations(now, deadline, overloaded, settings);
+        deferred += runCleanup(now, deadline, overloaded, settings);
+
+        long elapsed = System.nanoTime() - start;
+        if (elapsed > 1000L) {
+            metrics.recordTime("scheduler.tick", elapsed);
+        }
+        if (System.nanoTime() > deadline) {
+            metrics.increment("scheduler.overruns");
+        }
+        if (overloaded) {
+            metrics.increment("scheduler.overloaded_ticks");
+        }
+        if (deferred > 0) {
+            metrics.add("scheduler.deferred", deferred);
+        }
+
+        deferredDepth = deferred;
+        if (deferred > maxDeferredDepth) {
+            maxDeferredDepth = deferred;
+        }
+    }
+
+    private int runAutoSaves(long now, long deadline, SchedulerSettings settings) {
+        if (autoSaveDue.isEmpty()) {
+            return 0;
+        }
+
+        List<UUID> due = null;
+        int deferred = 0;
+
+        for (Map.Entry<UUID, Long> entry : autoSaveDue.entrySet()) {
+            long dueTick = entry.getValue();
+            if (dueTick > now) {
+                continue;
+            }
+
+            boolean overdue = now - dueTick >= settings.maxDeferTicks();
+            if (!overdue && System.nanoTime() > deadline) {
+                deferred++;
+                continue;
+            }
+
+            if (autoSaveDue.remove(entry.getKey(), dueTick)) {
+                if (due == null) {
+                    due = new ArrayList<>();
+                }
+                due.add(entry.getKey());
+                if (overdue) {
+                    metrics.increment("scheduler.forced");
+                }
+            }
+        }
+
+        if (due != null) {
+            for (UUID playerId : due) {
+                Player player = Bukkit.getPlayer(playerId);
+                if (player != null) {
+                    manager.performAutoSave(player);
+                }
+            }
+            metrics.add("scheduler.autosaves", due.size());
+        }
+
+        return deferred;
+    }
+
+    private int runValidations(long now, long deadline, boolean overloaded, SchedulerSettings settings) {
+        if (validationQueue.isEmpty()) {
+            return 0;
+        }
+
+        int checked = 0;
+        int removed = 0;
+        int violations = 0;
+        int deferred = 0;
+
+        ValidationSweepEvent event = new ValidationSweepEvent();
+        event.begin();
+
+        int remaining = validationQueue.size();
+        while (remaining-- > 0) {
+            UUID playerId = validationQueue.peekFirst();
+            if (playerId == null) {
+                break;
+            }
+
+            Long last = lastValidated.get(playerId);
+            if (last == null) {
+                validationQueue.pollFirst();
+                continue;
+            }
+
+            long age = now - last;
+            if (age < settings.validationIntervalTicks()) {
+                break;
+            }
+
+            boolean overdue = age >= settings.maxDeferTicks();
+            if (!overdue && (overloaded || System.nanoTime() > deadline)) {
+                deferred = countDue(now, settings);
+                break;
+            }
+
+            validationQueue.pollFirst();
+            if (overdue) {
+                metrics.increment("scheduler.forced");
+            }
+
+            checked++;
+            switch (manager.validateSession(playerId)) {
+                case VALID -> {
+                    lastValidated.put(playerId, now);
+                    validationQueue.addLast(playerId);
+                }
+                case REMOVED -> {
+                    lastValidated.remove(playerId);
+                    removed++;
+                }
+                case VIOLATION -> {
+                    lastValidated.remove(playerId);
+                    violations++;
+                }
+            }
+        }
+
+        event.end();
+        if (checked > 0) {
+            metrics.add("scheduler.validations", checked);
+            if (event.shouldCommit()) {
+                event.sessions = checked;
+                event.removed = removed;
+                event.violations = violations;
+                event.commit();
+            }
+        }
+
+        return deferred;
+    }
+
+    private int countDue(long now, SchedulerSettings settings) {
+        int due = 0;
+        Iterator<UUID> iterator = validationQueue.iterator();
+        while (iterator.hasNext()) {
+            Long last = lastValidated.get(iterator.next());
+            if (last != null && now - last < settings.validationIntervalTicks()) {
+                break;
+            }
+            due++;
+        }
+        return due;
+    }
+
+    private int runCleanup(long now, long deadline, boolean overloaded, SchedulerSettings settings) {
+        if (now < nextCleanupTick) {
+            return 0;
+        }
+
+        boolean overdue = now - nextCleanupTick >= settings.maxDeferTicks();
+        if (!overdue && (overloaded || System.nanoTime() > deadline)) {
+            return 1;
+        }
+
+        nextCleanupTick = now + settings.cleanupIntervalTicks();
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (manager.hasOpenShulker(player) && player.getOpenInventory().getTopInventory().getViewers().isEmpty()) {
+                plugin.getLogger().warning("Detected orphaned session for player: " + player.getName());
+                manager.closeShulker(player, true);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.mathsanalysis.vshulker.trace;
+
+import org.bukkit.Material;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.DragType;
+import org.bukkit.event.inventory.InventoryAction;
+
+public sealed interface TraceEvent {
+
+    int tick();
+
+    int player();
+
+    record Open(int tick, int player, String slot, Material shulkerType, byte[][] contents) implements TraceEvent {}
+
+    record Click(int tick, int player, ClickType click, InventoryAction action, int rawSlot, int hotbar,
+                 ItemRef current, ItemRef cursor, boolean cancelled) implements TraceEvent {}
+
+    record Drag(int tick, int player, DragType type, int[] rawSlots, ItemRef cursor,
+                boolean cancelled) implements TraceEvent {}
+
+    record Close(int tick, int player) implements TraceEvent {}
+
+    record ItemRef(Material material, int amount, int fingerprint) {
+
+        static final ItemRef EMPTY = new ItemRef(null, 0, 0);
+
+        public boolean isEmpty() {
+            return material == null || amount <= 0;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.mathsanalysis.vshulker.trace;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+final class TraceFormat {
+
+    static final int MAGIC = 0x56535452;
+    static final byte VERSION = 1;
+
+    static final byte TYPE_END = 0;
+    static final byte TYPE_PLAYER = 1;
+    static final byte TYPE_MATERIAL = 2;
+    static final byte TYPE_OPEN = 3;
+    static final byte TYPE_CLICK = 4;
+    static final byte TYPE_DRAG = 5;
+    static final byte TYPE_CLOSE = 6;
+
+    static final String EXTENSION = ".vstrace";
+    static final String FOLDER = "traces";
+
+    private TraceFormat() {
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt too long");
+    }
+
+    static <E extends Enum<E>> void writeEnumTable(DataOutput out, E[] values) throws IOException {
+        writeVarInt(out, values.length);
+        for (E value : values) {
+            out.writeUTF(value.name());
+        }
+    }
+
+    static <E extends Enum<E>> E[] readEnumTable(DataInput in, Class<E> type, E[] empty) throws IOException {
+        int length = readVarInt(in);
+        E[] table = Arrays.copyOf(empty, length);
+        for (int i = 0; i < length; i++) {
+            String name = in.readUTF();
+            try {
+                table[i] = Enum.valueOf(type, name);
+            } catch (IllegalArgumentException e) {
+                table[i] = null;
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,152 @@
+package com.github.mathsanalysis.vshulker.trace;
+
+import org.bukkit.Material;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.DragType;
+import org.bukkit.event.inventory.InventoryAction;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+public final class TraceReader {
+
+    private TraceReader() {
+    }
+
+    public static Trace read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file.toPath()))))) {
+            if (in.readInt() != TraceFormat.MAGIC) {
+                throw new IOException("Not a VirtualShulker trace: " + file.getName());
+            }
+
+            byte version = in.readByte();
+            if (version != TraceFormat.VERSION) {
+                throw new IOException("Unsupported trace version " + version);
+            }
+
+            long startedAt = in.readLong();
+            ClickType[] clickTypes = TraceFormat.readEnumTable(in, ClickType.class, new ClickType[0]);
+            InventoryAction[] actions = TraceFormat.readEnumTable(in, InventoryAction.class, new InventoryAction[0]);
+            DragType[] dragTypes = TraceFormat.readEnumTable(in, DragType.class, new DragType[0]);
+
+            Map<Integer, TracePlayer> players = new HashMap<>();
+            Map<Integer, Material> materials = new HashMap<>();
+            List<TraceEvent> events = new ArrayList<>();
+            boolean complete = false;
+            int tick = 0;
+
+            try {
+                while (true) {
+                    byte type = in.readByte();
+                    if (type == TraceFormat.TYPE_END) {
+                        complete = true;
+                        break;
+                    }
+
+                    tick += TraceFormat.readVarInt(in);
+
+                    switch (type) {
+                        case TraceFormat.TYPE_PLAYER -> {
+                            int id = TraceFormat.readVarInt(in);
+                            players.put(id, new TracePlayer(id, new UUID(in.readLong(), in.readLong()), in.readUTF()));
+                        }
+                        case TraceFormat.TYPE_MATERIAL -> {
+                            int id = TraceFormat.readVarInt(in);
+                            materials.put(id, Material.getMaterial(in.readUTF()));
+                        }
+                        case TraceFormat.TYPE_OPEN -> {
+                            int player = TraceFormat.readVarInt(in);
+                            String slot = in.readUTF();
+                            Material shulkerType = materials.get(TraceFormat.readVarInt(in));
+                            byte[][] contents = new byte[TraceFormat.readVarInt(in)][];
+                            for (int i = 0; i < contents.length; i++) {
+                                int length = TraceFormat.readVarInt(in);
+                                if (length > 0) {
+                                    contents[i] = new byte[length];
+                                    in.readFully(contents[i]);
+                                }
+                            }
+                            events.add(new TraceEvent.Open(tick, player, slot, shulkerType, contents));
+                        }
+                        case TraceFormat.TYPE_CLICK -> {
+                            int player = TraceFormat.readVarInt(in);
+                            ClickType click = lookup(clickTypes, TraceFormat.readVarInt(in));
+                            InventoryAction action = lookup(actions, TraceFormat.readVarInt(in));
+                            int rawSlot = in.readShort();
+                            int hotbar = in.readByte();
+                            TraceEvent.ItemRef current = readItem(in, materials);
+                            TraceEvent.ItemRef cursor = readItem(in, materials);
+                            events.add(new TraceEvent.Click(tick, player, click, action, rawSlot, hotbar,
+                                    current, cursor, in.readBoolean()));
+                        }
+                        case TraceFormat.TYPE_DRAG -> {
+                            int player = TraceFormat.readVarInt(in);
+                            DragType dragType = lookup(dragTypes, TraceFormat.readVarInt(in));
+                            int[] rawSlots = new int[TraceFormat.readVarInt(in)];
+                            for (int i = 0; i < rawSlots.length; i++) {
+                                rawSlots[i] = in.readShort();
+                            }
+                            TraceEvent.ItemRef cursor = readItem(in, materials);
+                            events.add(new TraceEvent.Drag(tick, player, dragType, rawSlots, cursor, in.readBoolean()));
+                        }
+                        case TraceFormat.TYPE_CLOSE -> events.add(new TraceEvent.Close(tick, TraceFormat.readVarInt(in)));
+                        default -> throw new IOException("Unknown trace record type " + type);
+                    }
+                }
+            } catch (EOFException e) {
+                complete = false;
+            }
+
+            return new Trace(file.getName(), startedAt, List.copyOf(players.values()), events, tick, complete);
+        }
+    }
+
+    private static TraceEvent.ItemRef readItem(DataInputStream in, Map<Integer, Material> materials) throws IOException {
+        int material = TraceFormat.readVarInt(in);
+        if (material == 0) {
+            return TraceEvent.ItemRef.EMPTY;
+        }
+        return new TraceEvent.ItemRef(materials.get(material - 1), TraceFormat.readVarInt(in), in.readInt());
+    }
+
+    private static <E> E lookup(E[] table, int index) {
+        return index >= 0 && index < table.length ? table[index] : null;
+    }
+
+    public record TracePlayer(int id, UUID uuid, String name) {}
+
+    public record Trace(String name, long startedAt, List<TracePlayer> players, List<TraceEvent> events,
+                        int durationTicks, boolean complete) {
+
+        public TracePlayer player(String name) {
+            for (TracePlayer player : players) {
+                if (player.name().equalsIgnoreCase(name)) {
+                    return player;
+                }
+            }
+            return null;
+        }
+
+        public TracePlayer firstPlayer() {
+            for (TraceEvent event : events) {
+                for (TracePlayer player : players) {
+                    if (player.id() == event.player()) {
+                        return player;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
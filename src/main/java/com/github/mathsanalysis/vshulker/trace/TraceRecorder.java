@@ -0,0 +1,417 @@
+package com.github.mathsanalysis.vshulker.trace;
+
+import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.DragType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+public final class TraceRecorder {
+
+    private static final int QUEUE_CAPACITY = 16384;
+    private static final long MAX_DURATION_TICKS = 6L * 60 * 60 * 20;
+    private static final byte[] END = new byte[]{TraceFormat.TYPE_END};
+
+    private final VirtualShulkerPlugin plugin;
+    private final PluginMetrics metrics;
+    private final ByteArrayOutputStream scratch;
+    private final DataOutputStream out;
+
+    private volatile Recording recording;
+
+    public TraceRecorder(VirtualShulkerPlugin plugin, PluginMetrics metrics) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.scratch = new ByteArrayOutputStream(256);
+        this.out = new DataOutputStream(scratch);
+    }
+
+    public boolean isRecording(UUID playerId) {
+        Recording active = recording;
+        return active != null && (active.targets == null || active.targets.contains(playerId));
+    }
+
+    public boolean isActive() {
+        return recording != null;
+    }
+
+    public synchronized boolean start(CommandSender sender, Collection<UUID> targets, long durationTicks) {
+        if (recording != null) {
+            return false;
+        }
+
+        File directory = new File(plugin.getDataFolder(), TraceFormat.FOLDER);
+        if (!directory.exists() && !directory.mkdirs()) {
+            sender.sendMessage(Component.text("Could not create trace folder: " + directory.getPath(), NamedTextColor.RED));
+            return true;
+        }
+
+        File file = new File(directory, "trace-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date())
+                + TraceFormat.EXTENSION);
+
+        DataOutputStream stream;
+        try {
+            stream = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(file.toPath()), 8192)));
+            stream.writeInt(TraceFormat.MAGIC);
+            stream.writeByte(TraceFormat.VERSION);
+            stream.writeLong(System.currentTimeMillis());
+            TraceFormat.writeEnumTable(stream, ClickType.values());
+            TraceFormat.writeEnumTable(stream, InventoryAction.values());
+            TraceFormat.writeEnumTable(stream, DragType.values());
+        } catch (IOException e) {
+            sender.sendMessage(Component.text("Could not create trace file: " + e.getMessage(), NamedTextColor.RED));
+            return true;
+        }
+
+        Recording active = new Recording(sender, file, stream, targets == null ? null : Set.copyOf(targets),
+                Bukkit.getCurrentTick());
+        active.writer = new Thread(() -> drain(active), "VirtualShulker-TraceWriter");
+        active.writer.setDaemon(true);
+        active.writer.start();
+        active.stopTask = Bukkit.getScheduler().runTaskLater(plugin, () -> stop("duration elapsed"), durationTicks);
+
+        recording = active;
+        metrics.increment("trace.recordings");
+
+        sender.sendMessage(Component.text("Recording " + (targets == null ? "all players" : targets.size() + " player(s)")
+                + " for " + (durationTicks / 20) + "s into " + file.getName(), NamedTextColor.GREEN));
+        return true;
+    }
+
+    public synchronized boolean stop(String reason) {
+        Recording active = recording;
+        if (active == null) {
+            return false;
+        }
+
+        recording = null;
+        if (active.stopTask != null) {
+            active.stopTask.cancel();
+        }
+
+        active.reason = reason;
+        enqueueEnd(active);
+        return true;
+    }
+
+    public void shutdown() {
+        Recording active = recording;
+        if (!stop("plugin disabled") || active == null) {
+            return;
+        }
+
+        try {
+            active.writer.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized void open(Player player, String slot, Material shulkerType, ItemStack[] contents) {
+        Recording active = recording;
+        if (active == null || !isRecording(player.getUniqueId())) {
+            return;
+        }
+
+        try {
+            int playerId = playerId(active, player);
+            int materialId = materialId(active, shulkerType);
+
+            begin(active, TraceFormat.TYPE_OPEN);
+            TraceFormat.writeVarInt(out, playerId);
+            out.writeUTF(slot);
+            TraceFormat.writeVarInt(out, materialId);
+            TraceFormat.writeVarInt(out, contents.length);
+            for (ItemStack item : contents) {
+                if (item == null || item.isEmpty()) {
+                    TraceFormat.writeVarInt(out, 0);
+                } else {
+                    byte[] bytes = item.serializeAsBytes();
+                    TraceFormat.writeVarInt(out, bytes.length);
+                    out.write(bytes);
+                }
+            }
+            submit(active);
+        } catch (IOException e) {
+            fail(active, e);
+        }
+    }
+
+    public synchronized void click(Player player, ClickType click, InventoryAction action, int rawSlot, int hotbar,
+                                   ItemStack current, ItemStack cursor, boolean cancelled) {
+        Recording active = recording;
+        if (active == null || !isRecording(player.getUniqueId())) {
+            return;
+        }
+
+        try {
+            int playerId = playerId(active, player);
+            int currentMaterial = itemMaterialId(active, current);
+            int cursorMaterial = itemMaterialId(active, cursor);
+
+            begin(active, TraceFormat.TYPE_CLICK);
+            TraceFormat.writeVarInt(out, playerId);
+            TraceFormat.writeVarInt(out, click.ordinal());
+            TraceFormat.writeVarInt(out, action.ordinal());
+            out.writeShort(rawSlot);
+            out.writeByte(hotbar);
+            writeItem(current, currentMaterial);
+            writeItem(cursor, cursorMaterial);
+            out.writeBoolean(cancelled);
+            submit(active);
+        } catch (IOException e) {
+            fail(active, e);
+        }
+    }
+
+    public synchronized void drag(Player player, DragType type, Set<Integer> rawSlots, ItemStack cursor, boolean cancelled) {
+        Recording active = recording;
+        if (active == null || !isRecording(player.getUniqueId())) {
+            return;
+        }
+
+        try {
+            int playerId = playerId(active, player);
+            int cursorMaterial = itemMaterialId(active, cursor);
+
+            begin(active, TraceFormat.TYPE_DRAG);
+            TraceFormat.writeVarInt(out, playerId);
+            TraceFormat.writeVarInt(out, type.ordinal());
+            TraceFormat.writeVarInt(out, rawSlots.size());
+            for (int rawSlot : rawSlots) {
+                out.writeShort(rawSlot);
+            }
+            writeItem(cursor, cursorMaterial);
+            out.writeBoolean(cancelled);
+            submit(active);
+        } catch (IOException e) {
+            fail(active, e);
+        }
+    }
+
+    public synchronized void close(UUID playerId) {
+        Recording active = recording;
+        if (active == null) {
+            return;
+        }
+
+        Integer id = active.players.get(playerId);
+        if (id == null) {
+            return;
+        }
+
+        try {
+            begin(active, TraceFormat.TYPE_CLOSE);
+            TraceFormat.writeVarInt(out, id);
+            submit(active);
+        } catch (IOException e) {
+            fail(active, e);
+        }
+    }
+
+    public static long parseDurationTicks(String input) {
+        if (input == null || input.isEmpty()) {
+            return -1;
+        }
+
+        char unit = Character.toLowerCase(input.charAt(input.length() - 1));
+        String digits = Character.isDigit(unit) ? input : input.substring(0, input.length() - 1);
+        long multiplier = switch (unit) {
+            case 'h' -> 20L * 60 * 60;
+            case 'm' -> 20L * 60;
+            case 's' -> 20L;
+            case 't' -> 1L;
+            default -> Character.isDigit(unit) ? 20L : -1L;
+        };
+
+        if (multiplier < 0) {
+            return -1;
+        }
+
+        try {
+            long ticks = Long.parseLong(digits) * multiplier;
+            return ticks > 0 && ticks <= MAX_DURATION_TICKS ? ticks : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private int playerId(Recording active, Player player) throws IOException {
+        Integer id = active.players.get(player.getUniqueId());
+        if (id != null) {
+            return id;
+        }
+
+        id = active.players.size();
+        active.players.put(player.getUniqueId(), id);
+
+        begin(active, TraceFormat.TYPE_PLAYER);
+        TraceFormat.writeVarInt(out, id);
+        out.writeLong(player.getUniqueId().getMostSignificantBits());
+        out.writeLong(player.getUniqueId().getLeastSignificantBits());
+        out.writeUTF(player.getName());
+        submit(active);
+        return id;
+    }
+
+    private int materialId(Recording active, Material material) throws IOException {
+        Integer id = active.materials.get(material);
+        if (id != null) {
+            return id;
+        }
+
+        id = active.materials.size();
+        active.materials.put(material, id);
+
+        begin(active, TraceFormat.TYPE_MATERIAL);
+        TraceFormat.writeVarInt(out, id);
+        out.writeUTF(material.name());
+        submit(active);
+        return id;
+    }
+
+    private int itemMaterialId(Recording active, ItemStack item) throws IOException {
+        return item == null || item.isEmpty() ? -1 : materialId(active, item.getType());
+    }
+
+    private void writeItem(ItemStack item, int materialId) throws IOException {
+        if (materialId < 0) {
+            TraceFormat.writeVarInt(out, 0);
+            return;
+        }
+
+        TraceFormat.writeVarInt(out, materialId + 1);
+        TraceFormat.writeVarInt(out, item.getAmount());
+        out.writeInt(item.hashCode());
+    }
+
+    private void begin(Recording active, byte type) throws IOException {
+        int tick = Bukkit.getCurrentTick();
+        scratch.reset();
+        out.writeByte(type);
+        TraceFormat.writeVarInt(out, Math.max(0, tick - active.lastTick));
+        active.lastTick = Math.max(active.lastTick, tick);
+    }
+
+    private void submit(Recording active) {
+        if (recording != active) {
+            return;
+        }
+
+        if (!active.queue.offer(scratch.toByteArray())) {
+            metrics.increment("trace.dropped");
+            plugin.getLogger().warning("Trace writer fell behind, stopping recording " + active.file.getName());
+            stop("writer backlog");
+            return;
+        }
+
+        active.events++;
+        metrics.increment("trace.records");
+    }
+
+    private void fail(Recording active, IOException e) {
+        plugin.getLogger().warning("Failed to encode trace record: " + e.getMessage());
+        if (recording == active) {
+            stop("encode error");
+        }
+    }
+
+    private void enqueueEnd(Recording active) {
+        try {
+            if (!active.queue.offer(END, 1, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Trace writer is not responding, " + active.file.getName() + " may be truncated");
+                active.writer.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            active.writer.interrupt();
+        }
+    }
+
+    private void drain(Recording active) {
+        long bytes = 0;
+        String error = null;
+
+        try (DataOutputStream stream = active.stream) {
+            while (true) {
+                byte[] record = active.queue.take();
+                stream.write(record);
+                bytes += record.length;
+                if (record == END) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            error = e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "interrupted";
+        }
+
+        String summary = error != null
+                ? "Trace " + active.file.getName() + " failed: " + error
+                : String.format("Trace %s written: %d records, %.1f KB raw, %.1f KB on disk (%s)",
+                active.file.getName(), active.events, bytes / 1024.0, active.file.length() / 1024.0, active.reason);
+
+        plugin.getLogger().info(summary);
+        if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, () -> active.sender.sendMessage(
+                    Component.text(summary, error != null ? NamedTextColor.RED : NamedTextColor.GREEN)));
+        }
+    }
+
+    private static final class Recording {
+        private final CommandSender sender;
+        private final File file;
+        private final DataOutputStream stream;
+        private final Set<UUID> targets;
+        private final BlockingQueue<byte[]> queue;
+        private final Map<UUID, Integer> players;
+        private final Map<Material, Integer> materials;
+
+        private Thread writer;
+        private BukkitTask stopTask;
+        private int lastTick;
+        private long events;
+        private volatile String reason;
+
+        private Recording(CommandSender sender, File file, DataOutputStream stream, Set<UUID> targets, int startTick) {
+            this.sender = sender;
+            this.file = file;
+            this.stream = stream;
+            this.targets = targets;
+            this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+            this.players = new HashMap<>();
+            this.materials = new EnumMap<>(Material.class);
+            this.lastTick = startTick;
+        }
+    }
+}
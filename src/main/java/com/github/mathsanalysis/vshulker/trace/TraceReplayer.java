@@ -0,0 +1,384 @@
+package com.github.mathsanalysis.vshulker.trace;
+
+import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
+import com.github.mathsanalysis.vshulker.config.Config;
+import com.github.mathsanalysis.vshulker.manager.VirtualShulkerManager;
+import com.github.mathsanalysis.vshulker.security.ItemAccounting;
+import com.github.mathsanalysis.vshulker.utils.ShulkerContents;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.DragType;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public final class TraceReplayer {
+
+    private static final int MAX_OPEN_ATTEMPTS = 40;
+    private static final int MAX_EVENTS_PER_TICK = 5000;
+
+    private final VirtualShulkerPlugin plugin;
+    private final VirtualShulkerManager manager;
+    private final AtomicBoolean running;
+    private final NamespacedKey replayKey;
+
+    private Replay replay;
+
+    public TraceReplayer(VirtualShulkerPlugin plugin, VirtualShulkerManager manager) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.running = new AtomicBoolean();
+        this.replayKey = new NamespacedKey(plugin, "replay");
+    }
+
+    public File resolve(String name) {
+        File directory = new File(plugin.getDataFolder(), TraceFormat.FOLDER);
+        File file = new File(directory, name.endsWith(TraceFormat.EXTENSION) ? name : name + TraceFormat.EXTENSION);
+
+        try {
+            if (!file.getCanonicalFile().getParentFile().equals(directory.getCanonicalFile())) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+
+        return file.isFile() ? file : null;
+    }
+
+    public boolean start(CommandSender sender, File file, Player target, double speed, String source) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        if (!isReplayTarget(target)) {
+            running.set(false);
+            sender.sendMessage(Component.text(target.getName() + " must be in creative or spectator mode"
+                    + (Config.get().replayWorld() != null ? " or in world " + Config.get().replayWorld() : ""), NamedTextColor.RED));
+            return true;
+        }
+
+        if (!target.getInventory().getItemInMainHand().isEmpty() || manager.hasOpenShulker(target)) {
+            running.set(false);
+            sender.sendMessage(Component.text(target.getName() + " needs an empty main hand and no open shulker", NamedTextColor.RED));
+            return true;
+        }
+
+        sender.sendMessage(Component.text("Loading trace " + file.getName() + "...", NamedTextColor.YELLOW));
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            TraceReader.Trace trace;
+            try {
+                trace = TraceReader.read(file);
+            } catch (IOException e) {
+                running.set(false);
+                plugin.getLogger().warning("Failed to read trace " + file.getName() + ": " + e.getMessage());
+                Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(
+                        Component.text("Failed to read trace: " + e.getMessage(), NamedTextColor.RED)));
+                return;
+            }
+
+            Bukkit.getScheduler().runTask(plugin, () -> begin(sender, trace, target, speed, source));
+        });
+        return true;
+    }
+
+    public boolean stop() {
+        Replay active = replay;
+        if (active == null) {
+            return false;
+        }
+
+        active.finish("stopped");
+        return true;
+    }
+
+    private void begin(CommandSender sender, TraceReader.Trace trace, Player target, double speed, String source) {
+        TraceReader.TracePlayer recorded = source != null ? trace.player(source) : trace.firstPlayer();
+
+        if (recorded == null) {
+            running.set(false);
+            sender.sendMessage(Component.text(source != null
+                    ? "Player " + source + " does not appear in " + trace.name()
+                    : "Trace " + trace.name() + " contains no events", NamedTextColor.RED));
+            return;
+        }
+
+        if (!target.isOnline()) {
+            running.set(false);
+            sender.sendMessage(Component.text("Replay target went offline", NamedTextColor.RED));
+            return;
+        }
+
+        if (!isReplayTarget(target)) {
+            running.set(false);
+            sender.sendMessage(Component.text("Replay target left creative, spectator or the replay world", NamedTextColor.RED));
+            return;
+        }
+
+        if (!trace.complete()) {
+            sender.sendMessage(Component.text("Trace " + trace.name() + " is truncated, replaying what was written",
+                    NamedTextColor.YELLOW));
+        }
+
+        sender.sendMessage(Component.text(String.format("Replaying %s's traffic from %s onto %s at %s (%d events, %.1fs recorded)",
+                recorded.name(), trace.name(), target.getName(), speed > 0 ? speed + "x" : "max speed",
+                trace.events().size(), trace.durationTicks() / 20.0), NamedTextColor.GREEN));
+
+        replay = new Replay(sender, trace, recorded.id(), target, speed);
+        replay.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    private boolean isReplayTarget(Player target) {
+        String world = Config.get().replayWorld();
+        GameMode mode = target.getGameMode();
+        return mode == GameMode.CREATIVE || mode == GameMode.SPECTATOR
+                || (world != null && target.getWorld().getName().equals(world));
+    }
+
+    private enum Kind {OPEN, CLICK, DRAG, CLOSE}
+
+    private final class Replay extends BukkitRunnable {
+        private final CommandSender sender;
+        private final TraceReader.Trace trace;
+        private final int source;
+        private final Player target;
+        private final double speed;
+        private final long[] nanos;
+        private final int[] counts;
+        private final long startedAt;
+
+        private int index;
+        private int elapsed;
+        private int offset;
+        private int openAttempts;
+        private int skipped;
+        private int waits;
+        private boolean finished;
+
+        private Replay(CommandSender sender, TraceReader.Trace trace, int source, Player target, double speed) {
+            this.sender = sender;
+            this.trace = trace;
+            this.source = source;
+            this.target = target;
+            this.speed = speed;
+            this.nanos = new long[Kind.values().length];
+            this.counts = new int[Kind.values().length];
+            this.startedAt = System.nanoTime();
+            this.index = 0;
+            this.offset = -1;
+        }
+
+        @Override
+        public void run() {
+            if (!target.isOnline()) {
+                finish("target went offline");
+                return;
+            }
+
+            if (!isReplayTarget(target)) {
+                finish("target left replay mode");
+                return;
+            }
+
+            List<TraceEvent> events = trace.events();
+            int dispatched = 0;
+
+            while (index < events.size() && dispatched < MAX_EVENTS_PER_TICK) {
+                TraceEvent event = events.get(index);
+                if (event.player() != source) {
+                    index++;
+                    continue;
+                }
+
+                if (offset < 0) {
+                    offset = event.tick();
+                }
+
+                if (speed > 0 && (event.tick() - offset) / speed > elapsed) {
+                    break;
+                }
+
+                if (!dispatch(event)) {
+                    waits++;
+                    break;
+                }
+
+                index++;
+                dispatched++;
+            }
+
+            elapsed++;
+
+            if (index >= events.size()) {
+                finish("complete");
+            }
+        }
+
+        private boolean dispatch(TraceEvent event) {
+            long start = System.nanoTime();
+            Kind kind;
+
+            if (event instanceof TraceEvent.Open open) {
+                if (manager.hasOpenShulker(target) || manager.isLoading(target) || manager.isClosing(target) || !open(open)) {
+                    return false;
+                }
+                kind = Kind.OPEN;
+            } else if (!manager.hasOpenShulker(target)) {
+                skipped++;
+                return true;
+            } else if (event instanceof TraceEvent.Click click) {
+                if (click.click() == null || click.action() == null) {
+                    skipped++;
+                    return true;
+                }
+                InventoryView view = target.getOpenInventory();
+                InventoryType.SlotType slotType = view.getSlotType(click.rawSlot());
+                InventoryClickEvent replayed = click.hotbar() >= 0
+                        ? new InventoryClickEvent(view, slotType, click.rawSlot(), click.click(), click.action(), click.hotbar())
+                        : new InventoryClickEvent(view, slotType, click.rawSlot(), click.click(), click.action());
+                Bukkit.getPluginManager().callEvent(replayed);
+                kind = Kind.CLICK;
+            } else if (event instanceof TraceEvent.Drag drag) {
+                if (drag.type() == null || drag.cursor().isEmpty()) {
+                    skipped++;
+                    return true;
+                }
+                ItemStack cursor = new ItemStack(drag.cursor().material(), drag.cursor().amount());
+                Map<Integer, ItemStack> slots = new HashMap<>();
+                for (int rawSlot : drag.rawSlots()) {
+                    slots.put(rawSlot, new ItemStack(drag.cursor().material(), 1));
+                }
+                InventoryDragEvent replayed = new InventoryDragEvent(target.getOpenInventory(), null, cursor,
+                        drag.type() == DragType.SINGLE, slots);
+                Bukkit.getPluginManager().callEvent(replayed);
+                kind = Kind.DRAG;
+            } else {
+                target.closeInventory();
+                Bukkit.getScheduler().runTask(plugin, () -> removeReplayShulkers());
+                kind = Kind.CLOSE;
+            }
+
+            long duration = System.nanoTime() - start;
+            nanos[kind.ordinal()] += duration;
+            counts[kind.ordinal()]++;
+            manager.getMetrics().recordTime("replay." + kind.name().toLowerCase(), duration);
+            return true;
+        }
+
+        private boolean open(TraceEvent.Open open) {
+            Material type = open.shulkerType() != null && ItemAccounting.isShulkerBox(open.shulkerType())
+                    ? open.shulkerType() : Material.SHULKER_BOX;
+
+            if (openAttempts == 0) {
+                removeReplayShulkers();
+
+                ItemStack[] contents = new ItemStack[open.contents().length];
+                for (int i = 0; i < contents.length; i++) {
+                    contents[i] = open.contents()[i] != null ? ItemStack.deserializeBytes(open.contents()[i]) : null;
+                }
+
+                ItemStack shulker = new ItemStack(type);
+                ShulkerContents.write(shulker, contents);
+                shulker.editMeta(meta -> meta.getPersistentDataContainer().set(replayKey, PersistentDataType.BYTE, (byte) 1));
+                target.getInventory().setItemInMainHand(shulker);
+            }
+
+            manager.openShulker(target, EquipmentSlot.HAND);
+
+            if (manager.hasOpenShulker(target)) {
+                openAttempts = 0;
+                return true;
+            }
+
+            if (++openAttempts >= MAX_OPEN_ATTEMPTS) {
+                openAttempts = 0;
+                skipped++;
+                return true;
+            }
+            return false;
+        }
+
+        private void finish(String reason) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            cancel();
+
+            manager.cancelLoading(target);
+            if (plugin.isEnabled() && target.isOnline() && manager.hasOpenShulker(target)) {
+                manager.closeShulker(target, true, true);
+                target.closeInventory();
+            }
+
+            if (removeReplayShulkers() < 0 && plugin.isEnabled()) {
+                Bukkit.getScheduler().runTaskLater(plugin, () -> removeReplayShulkers(), 1L);
+            }
+
+            replay = null;
+            running.set(false);
+
+            double wallSeconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            sender.sendMessage(Component.text(String.format("Replay of %s %s after %.1fs (%d skipped, %d waits)",
+                    trace.name(), reason, wallSeconds, skipped, waits), NamedTextColor.GOLD));
+
+            for (Kind kind : Kind.values()) {
+                int count = counts[kind.ordinal()];
+                if (count > 0) {
+                    sender.sendMessage(Component.text(String.format("  %s: %d events, avg %.1fµs, total %.2fms",
+                            kind.name().toLowerCase(), count, nanos[kind.ordinal()] / 1000.0 / count,
+                            nanos[kind.ordinal()] / 1_000_000.0), NamedTextColor.YELLOW));
+                }
+            }
+        }
+
+        private int removeReplayShulkers() {
+            if (!target.isOnline() || manager.hasOpenShulker(target) || manager.isLoading(target) || manager.isClosing(target)) {
+                return -1;
+            }
+
+            int removed = removeReplayShulkers(target.getInventory()) + removeReplayShulkers(target.getEnderChest());
+            if (isReplayShulker(target.getItemOnCursor())) {
+                target.setItemOnCursor(null);
+                removed++;
+            }
+            return removed;
+        }
+
+        private int removeReplayShulkers(Inventory inventory) {
+            int removed = 0;
+            ItemStack[] contents = inventory.getContents();
+            for (int i = 0; i < contents.length; i++) {
+                if (isReplayShulker(contents[i])) {
+                    inventory.setItem(i, null);
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        private boolean isReplayShulker(ItemStack item) {
+            return item != null && ItemAccounting.isShulkerBox(item) && item.getPersistentDataContainer().has(replayKey);
+        }
+    }
+}
@@ -4,22 +4,27 @@ import com.github.mathsanalysis.vshulker.VirtualShulkerPlugin;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 
 public interface MessageUtil {
 
     MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
 
     static Component parseMessage(String message) {
+        return parseMessage(message, TagResolver.empty());
+    }
+
+    static Component parseMessage(String message, TagResolver resolver) {
         if (message == null || message.isEmpty()) {
             return Component.empty();
         }
 
-        if (message.contains("§")) {
+        if (message.indexOf('§') >= 0) {
             message = convertLegacyToMiniMessage(message);
         }
 
         try {
-            return MINI_MESSAGE.deserialize(message);
+            return MINI_MESSAGE.deserialize(message, resolver);
         } catch (Exception e) {
             VirtualShulkerPlugin.getInstance().getLogger().warning("Failed to parse MiniMessage: " + message);
             return Component.text(message);
@@ -27,57 +32,53 @@ public interface MessageUtil {
     }
 
     private static String convertLegacyToMiniMessage(String message) {
-        String converted = message
-                .replace("§0", "<black>")
-                .replace("§1", "<dark_blue>")
-                .replace("§2", "<dark_green>")
-                .replace("§3", "<dark_aqua>")
-                .replace("§4", "<dark_red>")
-                .replace("§5", "<dark_purple>")
-                .replace("§6", "<gold>")
-                .replace("§7", "<gray>")
-                .replace("§8", "<dark_gray>")
-                .replace("§9", "<blue>")
-                .replace("§a", "<green>")
-                .replace("§b", "<aqua>")
-                .replace("§c", "<red>")
-                .replace("§d", "<light_purple>")
-                .replace("§e", "<yellow>")
-                .replace("§f", "<white>")
-
-                .replace("§k", "<obfuscated>")
-                .replace("§l", "<bold>")
-                .replace("§m", "<strikethrough>")
-                .replace("§n", "<underline>")
-                .replace("§o", "<italic>")
-                .replace("§r", "<reset>");
-
-        converted = converted
-                .replace("&0", "<black>")
-                .replace("&1", "<dark_blue>")
-                .replace("&2", "<dark_green>")
-                .replace("&3", "<dark_aqua>")
-                .replace("&4", "<dark_red>")
-                .replace("&5", "<dark_purple>")
-                .replace("&6", "<gold>")
-                .replace("&7", "<gray>")
-                .replace("&8", "<dark_gray>")
-                .replace("&9", "<blue>")
-                .replace("&a", "<green>")
-                .replace("&b", "<aqua>")
-                .replace("&c", "<red>")
-                .replace("&d", "<light_purple>")
-                .replace("&e", "<yellow>")
-                .replace("&f", "<white>")
-
-                .replace("&k", "<obfuscated>")
-                .replace("&l", "<bold>")
-                .replace("&m", "<strikethrough>")
-                .replace("&n", "<underline>")
-                .replace("&o", "<italic>")
-                .replace("&r", "<reset>");
-
-        return converted;
+        int length = message.length();
+        StringBuilder converted = new StringBuilder(length + 32);
+
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+
+            if ((c == '§' || c == '&') && i + 1 < length) {
+                String tag = legacyTag(message.charAt(i + 1));
+                if (tag != null) {
+                    converted.append(tag);
+                    i++;
+                    continue;
+                }
+            }
+
+            converted.append(c);
+        }
+
+        return converted.toString();
+    }
+
+    private static String legacyTag(char code) {
+        return switch (code) {
+            case '0' -> "<black>";
+            case '1' -> "<dark_blue>";
+            case '2' -> "<dark_green>";
+            case '3' -> "<dark_aqua>";
+            case '4' -> "<dark_red>";
+            case '5' -> "<dark_purple>";
+            case '6' -> "<gold>";
+            case '7' -> "<gray>";
+            case '8' -> "<dark_gray>";
+            case '9' -> "<blue>";
+            case 'a' -> "<green>";
+            case 'b' -> "<aqua>";
+            case 'c' -> "<red>";
+            case 'd' -> "<light_purple>";
+            case 'e' -> "<yellow>";
+            case 'f' -> "<white>";
+            case 'k' -> "<obfuscated>";
+            case 'l' -> "<bold>";
+            case 'm' -> "<strikethrough>";
+            case 'n' -> "<underline>";
+            case 'o' -> "<italic>";
+            case 'r' -> "<reset>";
+            default -> null;
+        };
     }
 
     static String replacePlaceholders(String message, Object... placeholders) {
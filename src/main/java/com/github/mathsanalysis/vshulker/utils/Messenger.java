@@ -0,0 +1,79 @@
+package com.github.mathsanalysis.vshulker.utils;
+
+import com.github.mathsanalysis.vshulker.config.Config;
+import com.github.mathsanalysis.vshulker.config.MessageCatalog;
+import com.github.mathsanalysis.vshulker.config.MessageKey;
+import com.github.mathsanalysis.vshulker.metrics.MapFootprint;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class Messenger {
+
+    private final PluginMetrics metrics;
+    private final Map<UUID, long[]> lastSent;
+
+    public Messenger(PluginMetrics metrics) {
+        this.metrics = metrics;
+        this.lastSent = new ConcurrentHashMap<>();
+    }
+
+    public void send(Player player, MessageKey key) {
+        MessageCatalog catalog = Config.get().messages();
+        if (acquire(player.getUniqueId(), key, catalog.getThrottleMillis())) {
+            player.sendMessage(catalog.get(key));
+        }
+    }
+
+    public void send(Player player, MessageKey key, String placeholder, String value) {
+        MessageCatalog catalog = Config.get().messages();
+        if (acquire(player.getUniqueId(), key, catalog.getThrottleMillis())) {
+            player.sendMessage(catalog.format(key, placeholder, value));
+        }
+    }
+
+    public void clear(UUID playerId) {
+        lastSent.remove(playerId);
+    }
+
+    public void clearAll() {
+        lastSent.clear();
+    }
+
+    public int size() {
+        return lastSent.size();
+    }
+
+    public int sweep(Set<UUID> online) {
+        int before = lastSent.size();
+        lastSent.keySet().removeIf(playerId -> !online.contains(playerId));
+        return Math.max(0, before - lastSent.size());
+    }
+
+    public MapFootprint footprint() {
+        int entries = lastSent.size();
+        return new MapFootprint("message throttles", entries,
+                entries * (MapFootprint.ENTRY_BYTES + 16L + 8L * MessageCatalog.size()));
+    }
+
+    private boolean acquire(UUID playerId, MessageKey key, long throttleMillis) {
+        if (throttleMillis <= 0 || !key.isThrottled()) {
+            return true;
+        }
+
+        long[] times = lastSent.computeIfAbsent(playerId, k -> new long[MessageCatalog.size()]);
+        long now = System.currentTimeMillis();
+
+        if (now - times[key.ordinal()] < throttleMillis) {
+            metrics.increment("messages.throttled");
+            return false;
+        }
+
+        times[key.ordinal()] = now;
+        return true;
+    }
+}
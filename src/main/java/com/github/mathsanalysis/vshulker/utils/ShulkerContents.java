@@ -0,0 +1,103 @@
+package com.github.mathsanalysis.vshulker.utils;
+
+import io.papermc.paper.datacomponent.DataComponentTypes;
+import io.papermc.paper.datacomponent.item.ItemContainerContents;
+import org.bukkit.block.ShulkerBox;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BlockStateMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ShulkerContents {
+
+    private static final int DEFAULT_SIZE = 27;
+    private static final boolean COMPONENTS = isClassPresent("io.papermc.paper.datacomponent.item.ItemContainerContents");
+
+    private ShulkerContents() {
+    }
+
+    public static boolean usesDataComponents() {
+        return COMPONENTS;
+    }
+
+    public static ItemStack[] read(ItemStack shulkerBox) {
+        if (COMPONENTS) {
+            return ComponentAccess.read(shulkerBox);
+        }
+
+        if (!(shulkerBox.getItemMeta() instanceof BlockStateMeta meta)) {
+            return new ItemStack[DEFAULT_SIZE];
+        }
+
+        if (!(meta.getBlockState() instanceof ShulkerBox box)) {
+            return new ItemStack[DEFAULT_SIZE];
+        }
+
+        ItemStack[] contents = box.getInventory().getContents();
+        ItemStack[] cloned = new ItemStack[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            cloned[i] = contents[i] != null ? contents[i].clone() : null;
+        }
+        return cloned;
+    }
+
+    public static void write(ItemStack shulkerBox, ItemStack[] contents) {
+        if (COMPONENTS) {
+            ComponentAccess.write(shulkerBox, contents);
+            return;
+        }
+
+        if (!(shulkerBox.getItemMeta() instanceof BlockStateMeta blockMeta)) {
+            return;
+        }
+
+        ShulkerBox box = (ShulkerBox) blockMeta.getBlockState();
+
+        ItemStack[] cloned = new ItemStack[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            cloned[i] = contents[i] != null ? contents[i].clone() : null;
+        }
+
+        box.getInventory().setContents(cloned);
+
+        blockMeta.setBlockState(box);
+        shulkerBox.setItemMeta(blockMeta);
+    }
+
+    private static boolean isClassPresent(String name) {
+        try {
+            Class.forName(name, false, ShulkerContents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static final class ComponentAccess {
+
+        static ItemStack[] read(ItemStack shulkerBox) {
+            ItemContainerContents container = shulkerBox.getData(DataComponentTypes.CONTAINER);
+            if (container == null) {
+                return new ItemStack[DEFAULT_SIZE];
+            }
+
+            List<ItemStack> items = container.contents();
+            ItemStack[] contents = new ItemStack[Math.max(DEFAULT_SIZE, items.size())];
+            for (int i = 0; i < items.size(); i++) {
+                ItemStack item = items.get(i);
+                contents[i] = item == null || item.isEmpty() ? null : item;
+            }
+            return contents;
+        }
+
+        static void write(ItemStack shulkerBox, ItemStack[] contents) {
+            List<ItemStack> items = new ArrayList<>(contents.length);
+            for (ItemStack item : contents) {
+                items.add(item != null ? item : ItemStack.empty());
+            }
+
+            shulkerBox.setData(DataComponentTypes.CONTAINER, ItemContainerContents.containerContents(items));
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.mathsanalysis.vshulker.validation;
+
+public enum CostClass {
+    CHEAP,
+    MODERATE,
+    EXPENSIVE
+}
@@ -0,0 +1,233 @@
+package com.github.mathsanalysis.vshulker.validation;
+
+import com.github.mathsanalysis.vshulker.security.InventorySnapshot;
+import com.github.mathsanalysis.vshulker.security.ItemKey;
+import com.github.mathsanalysis.vshulker.security.NBTValidator;
+import com.github.mathsanalysis.vshulker.security.ShulkerIdentity;
+import com.github.mathsanalysis.vshulker.security.ValidationResult;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+public final class SessionFrame {
+
+    private final UUID playerId;
+    private final ItemStack currentShulker;
+    private final ItemStack originalShulker;
+    private final Supplier<ItemStack[]> playerSource;
+    private final Supplier<ItemStack[]> enderChestSource;
+    private final Supplier<ItemStack[]> shulkerSource;
+    private final Supplier<ItemStack[]> checkpointSource;
+
+    private ItemStack[] playerContents;
+    private ItemStack[] enderChestContents;
+    private ItemStack[] shulkerContents;
+    private ItemStack[] checkpoint;
+    private boolean checkpointLoaded;
+    private String playerHash;
+    private String enderChestHash;
+    private String shulkerHash;
+    private ItemKey[] playerKeys;
+    private ItemKey[] enderChestKeys;
+    private ItemKey[] shulkerKeys;
+    private ItemKey[] checkpointKeys;
+    private boolean checkpointKeysLoaded;
+    private ValidationResult nbtResult;
+    private Material currentShulkerType;
+    private Material originalShulkerType;
+    private ShulkerIdentity currentIdentity;
+    private ShulkerIdentity originalIdentity;
+    private boolean identityLoaded;
+    private InventorySnapshot.Baseline baseline;
+    private boolean baselineLoaded;
+
+    private SessionFrame(UUID playerId, ItemStack currentShulker, ItemStack originalShulker,
+                         Supplier<ItemStack[]> playerSource, Supplier<ItemStack[]> enderChestSource,
+                         Supplier<ItemStack[]> shulkerSource, Supplier<ItemStack[]> checkpointSource) {
+        this.playerId = playerId;
+        this.currentShulker = currentShulker;
+        this.originalShulker = originalShulker;
+        this.playerSource = playerSource;
+        this.enderChestSource = enderChestSource;
+        this.shulkerSource = shulkerSource;
+        this.checkpointSource = checkpointSource;
+    }
+
+    public static SessionFrame capture(Player player, ItemStack currentShulker, ItemStack originalShulker,
+                                       ItemStack[] shulkerContents, ItemStack[] checkpoint) {
+        SessionFrame frame = new SessionFrame(player.getUniqueId(), currentShulker, originalShulker,
+                null, null, null, null);
+        frame.playerContents = player.getInventory().getContents();
+        frame.enderChestContents = player.getEnderChest().getContents();
+        frame.shulkerContents = shulkerContents;
+        frame.checkpoint = checkpoint;
+        frame.checkpointLoaded = true;
+        return frame;
+    }
+
+    public static SessionFrame deferred(Player player, ItemStack currentShulker, ItemStack originalShulker,
+                                        Supplier<ItemStack[]> shulkerContents, Supplier<ItemStack[]> checkpoint) {
+        return new SessionFrame(player.getUniqueId(), currentShulker, originalShulker,
+                () -> player.getInventory().getContents(),
+                () -> player.getEnderChest().getContents(),
+                shulkerContents,
+                checkpoint);
+    }
+
+    public SessionFrame detach(InventorySnapshot snapshot) {
+        playerKeys = ItemKey.detached(playerContents());
+        enderChestKeys = ItemKey.detached(enderChestContents());
+        shulkerKeys = ItemKey.detached(shulkerContents());
+        checkpointKeys = ItemKey.detached(checkpoint());
+        checkpointKeysLoaded = true;
+        playerHash();
+        enderChestHash();
+        shulkerHash();
+        nbtResult();
+        loadIdentity();
+        baseline = snapshot.baseline(playerId, true);
+        baselineLoaded = true;
+        return this;
+    }
+
+    public UUID playerId() {
+        return playerId;
+    }
+
+    public ItemStack currentShulker() {
+        return currentShulker;
+    }
+
+    public ItemStack originalShulker() {
+        return originalShulker;
+    }
+
+    public ItemStack[] playerContents() {
+        if (playerContents == null) {
+            playerContents = playerSource.get();
+        }
+        return playerContents;
+    }
+
+    public ItemStack[] enderChestContents() {
+        if (enderChestContents == null) {
+            enderChestContents = enderChestSource.get();
+        }
+        return enderChestContents;
+    }
+
+    public ItemStack[] shulkerContents() {
+        if (shulkerContents == null) {
+            shulkerContents = shulkerSource.get();
+        }
+        return shulkerContents;
+    }
+
+    public ItemStack[] checkpoint() {
+        if (!checkpointLoaded) {
+            checkpoint = checkpointSource.get();
+            checkpointLoaded = true;
+        }
+        return checkpoint;
+    }
+
+    public ItemKey[] playerKeys() {
+        if (playerKeys == null) {
+            playerKeys = ItemKey.live(playerContents());
+        }
+        return playerKeys;
+    }
+
+    public ItemKey[] enderChestKeys() {
+        if (enderChestKeys == null) {
+            enderChestKeys = ItemKey.live(enderChestContents());
+        }
+        return enderChestKeys;
+    }
+
+    public ItemKey[] shulkerKeys() {
+        if (shulkerKeys == null) {
+            shulkerKeys = ItemKey.live(shulkerContents());
+        }
+        return shulkerKeys;
+    }
+
+    public ItemKey[] checkpointKeys() {
+        if (!checkpointKeysLoaded) {
+            checkpointKeys = ItemKey.live(checkpoint());
+            checkpointKeysLoaded = true;
+        }
+        return checkpointKeys;
+    }
+
+    public ValidationResult nbtResult() {
+        if (nbtResult == null) {
+            nbtResult = NBTValidator.validateInventory(shulkerContents());
+        }
+        return nbtResult;
+    }
+
+    public Material currentShulkerType() {
+        loadIdentity();
+        return currentShulkerType;
+    }
+
+    public Material originalShulkerType() {
+        loadIdentity();
+        return originalShulkerType;
+    }
+
+    public ShulkerIdentity currentIdentity() {
+        loadIdentity();
+        return currentIdentity;
+    }
+
+    public ShulkerIdentity originalIdentity() {
+        loadIdentity();
+        return originalIdentity;
+    }
+
+    public InventorySnapshot.Baseline baseline(InventorySnapshot snapshot) {
+        if (!baselineLoaded) {
+            baseline = snapshot.baseline(playerId, false);
+            baselineLoaded = true;
+        }
+        return baseline;
+    }
+
+    public String playerHash() {
+        if (playerHash == null) {
+            playerHash = InventorySnapshot.calculateHash(playerContents());
+        }
+        return playerHash;
+    }
+
+    public String enderChestHash() {
+        if (enderChestHash == null) {
+            enderChestHash = InventorySnapshot.calculateHash(enderChestContents());
+        }
+        return enderChestHash;
+    }
+
+    public String shulkerHash() {
+        if (shulkerHash == null) {
+            shulkerHash = InventorySnapshot.calculateHash(shulkerContents());
+        }
+        return shulkerHash;
+    }
+
+    private void loadIdentity() {
+        if (identityLoaded) {
+            return;
+        }
+
+        currentShulkerType = currentShulker != null ? currentShulker.getType() : null;
+        originalShulkerType = originalShulker != null ? originalShulker.getType() : null;
+        currentIdentity = ShulkerIdentity.of(currentShulker);
+        originalIdentity = ShulkerIdentity.of(originalShulker);
+        identityLoaded = true;
+    }
+}
@@ -0,0 +1,11 @@
+package com.github.mathsanalysis.vshulker.validation;
+
+import com.github.mathsanalysis.vshulker.config.MessageKey;
+
+public record StageFailure(
+        String stage,
+        String title,
+        String reason,
+        String adminReason,
+        MessageKey message
+) {}
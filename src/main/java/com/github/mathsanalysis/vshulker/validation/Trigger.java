@@ -0,0 +1,23 @@
+package com.github.mathsanalysis.vshulker.validation;
+
+import java.util.Locale;
+
+public enum Trigger {
+    CLICK,
+    AUTOSAVE,
+    COMMIT,
+    PERIODIC;
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static Trigger fromKey(String key) {
+        for (Trigger trigger : values()) {
+            if (trigger.key().equalsIgnoreCase(key.trim())) {
+                return trigger;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.mathsanalysis.vshulker.validation;
+
+import com.github.mathsanalysis.vshulker.config.Config;
+import com.github.mathsanalysis.vshulker.config.PluginSettings;
+import com.github.mathsanalysis.vshulker.metrics.PluginMetrics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+public final class ValidationPipeline {
+
+    private final Logger logger;
+    private final PluginMetrics metrics;
+    private final List<ValidationStage> stages;
+    private volatile Plan plan;
+
+    public ValidationPipeline(Logger logger, PluginMetrics metrics, List<ValidationStage> stages) {
+        this.logger = logger;
+        this.metrics = metrics;
+        this.stages = List.copyOf(stages);
+    }
+
+    public StageFailure run(Trigger trigger, SessionFrame frame) {
+        for (ValidationStage stage : plan().stages.get(trigger)) {
+            long start = System.nanoTime();
+            StageFailure failure = stage.check(frame);
+            metrics.recordTime("stage." + stage.name(), System.nanoTime() - start);
+
+            if (failure != null) {
+                metrics.increment("stage." + stage.name() + ".failed");
+                return failure;
+            }
+        }
+        return null;
+    }
+
+    public Map<ValidationStage, Set<Trigger>> describe() {
+        Map<ValidationStage, Set<Trigger>> description = new LinkedHashMap<>();
+        Plan current = plan();
+        for (ValidationStage stage : stages) {
+            Set<Trigger> triggers = EnumSet.noneOf(Trigger.class);
+            for (Trigger trigger : Trigger.values()) {
+                if (current.stages.get(trigger).contains(stage)) {
+                    triggers.add(trigger);
+                }
+            }
+            description.put(stage, triggers);
+        }
+        return description;
+    }
+
+    private Plan plan() {
+        PluginSettings settings = Config.get();
+        Plan current = plan;
+        if (current != null && current.generation == settings.generation()) {
+            return current;
+        }
+
+        Map<Trigger, List<ValidationStage>> byTrigger = new EnumMap<>(Trigger.class);
+        for (Trigger trigger : Trigger.values()) {
+            byTrigger.put(trigger, new ArrayList<>());
+        }
+
+        Map<String, Set<Trigger>> policy = settings.validationPolicy();
+        for (ValidationStage stage : stages) {
+            Set<Trigger> triggers = policy.getOrDefault(stage.name(), stage.defaultTriggers());
+
+            for (Trigger required : stage.requiredTriggers()) {
+                if (!triggers.contains(required)) {
+                    logger.warning("Validation stage " + stage.name() + " cannot be disabled for "
+                            + required.key() + ", keeping it enabled");
+                }
+            }
+
+            for (Trigger trigger : Trigger.values()) {
+                if (triggers.contains(trigger) || stage.requiredTriggers().contains(trigger)) {
+                    byTrigger.get(trigger).add(stage);
+                }
+            }
+        }
+
+        Map<Trigger, List<ValidationStage>> frozen = new EnumMap<>(Trigger.class);
+        byTrigger.forEach((trigger, list) -> frozen.put(trigger, List.copyOf(list)));
+
+        current = new Plan(settings.generation(), frozen);
+        plan = current;
+        return current;
+    }
+
+    private record Plan(int generation, Map<Trigger, List<ValidationStage>> stages) {}
+}
@@ -0,0 +1,18 @@
+package com.github.mathsanalysis.vshulker.validation;
+
+import java.util.Set;
+
+public interface ValidationStage {
+
+    String name();
+
+    CostClass cost();
+
+    Set<Trigger> defaultTriggers();
+
+    default Set<Trigger> requiredTriggers() {
+        return Set.of();
+    }
+
+    StageFailure check(SessionFrame frame);
+}
@@ -0,0 +1,54 @@
+package com.github.mathsanalysis.vshulker.validation.stage;
+
+import com.github.mathsanalysis.vshulker.config.MessageKey;
+import com.github.mathsanalysis.vshulker.security.InventorySnapshot;
+import com.github.mathsanalysis.vshulker.security.ItemKey;
+import com.github.mathsanalysis.vshulker.security.ValidationResult;
+import com.github.mathsanalysis.vshulker.validation.CostClass;
+import com.github.mathsanalysis.vshulker.validation.SessionFrame;
+import com.github.mathsanalysis.vshulker.validation.StageFailure;
+import com.github.mathsanalysis.vshulker.validation.Trigger;
+import com.github.mathsanalysis.vshulker.validation.ValidationStage;
+
+import java.util.Set;
+
+public record ModificationStage(InventorySnapshot snapshot) implements ValidationStage {
+
+    @Override
+    public String name() {
+        return "modification";
+    }
+
+    @Override
+    public CostClass cost() {
+        return CostClass.MODERATE;
+    }
+
+    @Override
+    public Set<Trigger> defaultTriggers() {
+        return Set.of(Trigger.COMMIT);
+    }
+
+    @Override
+    public StageFailure check(SessionFrame frame) {
+        ItemKey[] checkpoint = frame.checkpointKeys();
+        if (checkpoint == null) {
+            return null;
+        }
+
+        ValidationResult result = InventorySnapshot.detectImpossibleModifications(
+                frame.baseline(snapshot),
+                frame.playerKeys(),
+                frame.enderChestKeys(),
+                checkpoint,
+                frame.shulkerKeys()
+        );
+
+        if (result.isValid()) {
+            return null;
+        }
+
+        return new StageFailure(name(), "Impossible modification detected", result.getReason(),
+                "Impossible modification: " + result.getReason(), MessageKey.IMPOSSIBLE_CHANGES);
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.mathsanalysis.vshulker.validation.stage;
+
+import com.github.mathsanalysis.vshulker.config.MessageKey;
+import com.github.mathsanalysis.vshulker.security.ValidationResult;
+import com.github.mathsanalysis.vshulker.validation.CostClass;
+import com.github.mathsanalysis.vshulker.validation.SessionFrame;
+import com.github.mathsanalysis.vshulker.validation.StageFailure;
+import com.github.mathsanalysis.vshulker.validation.Trigger;
+import com.github.mathsanalysis.vshulker.validation.ValidationStage;
+
+import java.util.Set;
+
+public final class NbtStage implements ValidationStage {
+
+    @Override
+    public String name() {
+        return "nbt";
+    }
+
+    @Override
+    public CostClass cost() {
+        return CostClass.EXPENSIVE;
+    }
+
+    @Override
+    public Set<Trigger> defaultTriggers() {
+        return Set.of(Trigger.AUTOSAVE, Trigger.COMMIT);
+    }
+
+    @Override
+    public StageFailure check(SessionFrame frame) {
+        ValidationResult result = frame.nbtResult();
+
+        if (result.isValid()) {
+            return null;
+        }
+
+        return new StageFailure(name(), "Invalid contents on save", result.getReason(),
+                "Invalid NBT on save: " + result.getReason(), MessageKey.INVALID_DATA_ON_SAVE);
+    }
+}
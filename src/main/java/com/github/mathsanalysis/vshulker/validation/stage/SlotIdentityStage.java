@@ -0,0 +1,55 @@
+package com.github.mathsanalysis.vshulker.validation.stage;
+
+import com.github.mathsanalysis.vshulker.config.MessageKey;
+import com.github.mathsanalysis.vshulker.security.ItemAccounting;
+import com.github.mathsanalysis.vshulker.security.ShulkerIdentity;
+import com.github.mathsanalysis.vshulker.validation.CostClass;
+import com.github.mathsanalysis.vshulker.validation.SessionFrame;
+import com.github.mathsanalysis.vshulker.validation.StageFailure;
+import com.github.mathsanalysis.vshulker.validation.Trigger;
+import com.github.mathsanalysis.vshulker.validation.ValidationStage;
+import org.bukkit.Material;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public final class SlotIdentityStage implements ValidationStage {
+
+    @Override
+    public String name() {
+        return "slot-identity";
+    }
+
+    @Override
+    public CostClass cost() {
+        return CostClass.CHEAP;
+    }
+
+    @Override
+    public Set<Trigger> defaultTriggers() {
+        return EnumSet.allOf(Trigger.class);
+    }
+
+    @Override
+    public Set<Trigger> requiredTriggers() {
+        return Set.of(Trigger.COMMIT);
+    }
+
+    @Override
+    public StageFailure check(SessionFrame frame) {
+        Material current = frame.currentShulkerType();
+
+        if (current == null || !ItemAccounting.isShulkerBox(current)) {
+            String reason = current == null ? "Shulker disappeared" : "Not a shulker box (type: " + current + ")";
+            return new StageFailure(name(), "Shulker disappeared/invalid", reason, reason, MessageKey.SHULKER_MOVED);
+        }
+
+        ShulkerIdentity identity = frame.currentIdentity();
+        if (identity == null || !identity.equals(frame.originalIdentity())) {
+            String reason = "Shulker replaced (original: " + frame.originalShulkerType() + ", current: " + current + ")";
+            return new StageFailure(name(), "Shulker was replaced", reason, reason, MessageKey.SHULKER_REPLACED);
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.mathsanalysis.vshulker.validation.stage;
+
+import com.github.mathsanalysis.vshulker.config.MessageKey;
+import com.github.mathsanalysis.vshulker.security.InventorySnapshot;
+import com.github.mathsanalysis.vshulker.security.ValidationResult;
+import com.github.mathsanalysis.vshulker.validation.CostClass;
+import com.github.mathsanalysis.vshulker.validation.SessionFrame;
+import com.github.mathsanalysis.vshulker.validation.StageFailure;
+import com.github.mathsanalysis.vshulker.validation.Trigger;
+import com.github.mathsanalysis.vshulker.validation.ValidationStage;
+
+import java.util.Set;
+
+public record SnapshotStage(InventorySnapshot snapshot) implements ValidationStage {
+
+    @Override
+    public String name() {
+        return "snapshot";
+    }
+
+    @Override
+    public CostClass cost() {
+        return CostClass.EXPENSIVE;
+    }
+
+    @Override
+    public Set<Trigger> defaultTriggers() {
+        return Set.of(Trigger.AUTOSAVE, Trigger.COMMIT);
+    }
+
+    @Override
+    public StageFailure check(SessionFrame frame) {
+        InventorySnapshot.Baseline baseline = frame.baseline(snapshot);
+        if (baseline == null) {
+            return null;
+        }
+
+        ValidationResult result = InventorySnapshot.validateAgainstSnapshot(
+                baseline,
+                frame.playerKeys(),
+                frame.enderChestKeys(),
+                frame.shulkerKeys(),
+                frame.playerHash(),
+                frame.enderChestHash(),
+                frame.shulkerHash()
+        );
+
+        if (result.isValid()) {
+            return null;
+        }
+
+        return new StageFailure(name(), "Inventory manipulation detected", result.getReason(),
+                "Copy-paste manipulation: " + result.getReason(), MessageKey.INVENTORY_MANIPULATION);
+    }
+}
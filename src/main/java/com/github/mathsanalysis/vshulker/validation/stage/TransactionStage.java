@@ -0,0 +1,39 @@
+package com.github.mathsanalysis.vshulker.validation.stage;
+
+import com.github.mathsanalysis.vshulker.config.MessageKey;
+import com.github.mathsanalysis.vshulker.security.TransactionTracker;
+import com.github.mathsanalysis.vshulker.validation.CostClass;
+import com.github.mathsanalysis.vshulker.validation.SessionFrame;
+import com.github.mathsanalysis.vshulker.validation.StageFailure;
+import com.github.mathsanalysis.vshulker.validation.Trigger;
+import com.github.mathsanalysis.vshulker.validation.ValidationStage;
+
+import java.util.Set;
+
+public record TransactionStage(TransactionTracker tracker) implements ValidationStage {
+
+    @Override
+    public String name() {
+        return "transactions";
+    }
+
+    @Override
+    public CostClass cost() {
+        return CostClass.CHEAP;
+    }
+
+    @Override
+    public Set<Trigger> defaultTriggers() {
+        return Set.of(Trigger.COMMIT);
+    }
+
+    @Override
+    public StageFailure check(SessionFrame frame) {
+        if (!tracker.detectSuspiciousActivity(frame.playerId())) {
+            return null;
+        }
+
+        String reason = "Suspicious transaction pattern detected";
+        return new StageFailure(name(), "SUSPICIOUS ACTIVITY DETECTED", reason, reason, MessageKey.SUSPICIOUS_ACTIVITY);
+    }
+}